@@ -0,0 +1,129 @@
+package com.jisj.winsearch;
+
+import com.jisj.winsearch.sql.WinSearchResultSet;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.Contains;
+
+/**
+ * Immutable, thread-safe query to MS Windows Index Search.<br>
+ * The object holds only the ready SQL statement and the {@link DataSource}; each call of
+ * {@link #execute(String, QueryExecutor.Mapper) execute()} acquires its own connection, so one object can be shared between threads
+ * <p>Usage:
+ * <pre>{@code      CompiledQuery query = QueryExecutor.builder()
+ *              .properties(WinProperty...)
+ *              .folders(Folder.of(Path, DepthPredicate)...)
+ *              .comparisonPredicate(Contains)
+ *              .dataSource(DataSource) // optional, default WinSearchDataSource
+ *              .compile();
+ *      CompiledQuery.Result<List<String>> result = query.execute(String, mapper);
+ *      }
+ * </pre>
+ */
+public final class CompiledQuery {
+    private final String sqlStatement;
+    private final QueryBuilder.ComparisonPredicate comparisonPredicate;
+    private final DataSource dataSource;
+
+    CompiledQuery(String sqlStatement, QueryBuilder.ComparisonPredicate comparisonPredicate, DataSource dataSource) {
+        this.sqlStatement = Objects.requireNonNull(sqlStatement, "SQL statement not set");
+        this.comparisonPredicate = comparisonPredicate;
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source not set");
+    }
+
+    public String getSqlStatement() {
+        return sqlStatement;
+    }
+
+    public QueryBuilder.ComparisonPredicate getComparisonPredicate() {
+        return comparisonPredicate;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Finds the specified String on a new connection from the {@link DataSource}.
+     * The connection, statement and result set are closed after the mapper returns,
+     * so the mapper must collect the rows completely, for ex. by {@code stream.toList()} or {@link Stream#count()}.
+     * A lazy result, the stream itself or its iterator, would read the closed result set and is rejected
+     *
+     * @param findStr String to find
+     * @param mapper  {@link QueryExecutor.Mapper Mapper&lt;R>}
+     * @param <R>     type of mapper result
+     * @return {@link Result} with the mapper result and statistics of this execution
+     * @throws IllegalArgumentException when the find string is not valid for the comparison predicate
+     * @throws IllegalStateException    when the mapper returns a {@link BaseStream}, {@link Iterator} or {@link Spliterator},
+     *                                  or the query fails, the cause is {@link SQLException}
+     */
+    public <R> Result<R> execute(String findStr, QueryExecutor.Mapper<R> mapper) {
+        assertFindString(comparisonPredicate, findStr);
+        final String sql = sqlStatement.formatted(findStr);
+        final long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement()) {
+            WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sql);
+            final long opened = System.nanoTime();
+            final long records = rs.size();
+            R result = mapper.apply(rs.stream());
+            if (result instanceof BaseStream<?, ?> || result instanceof Iterator<?> || result instanceof Spliterator<?>)
+                throw new IllegalStateException("Mapper returned lazy " + result.getClass().getName()
+                        + ", the rows must be collected before the connection is closed");
+            return new Result<>(result, new Statistics(sql, records, opened - started, System.nanoTime() - opened));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Query failed: " + sql, e);
+        }
+    }
+
+    static void assertFindString(QueryBuilder.ComparisonPredicate predicate, String findStr) {
+        if (predicate == Contains && FindStringBuilder.needsQuotation(findStr))
+            throw new IllegalArgumentException("Find string contains the <space> symbols. For use with CONTAINS predicate the string should be enclosed in quotation marks");
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledQuery{" +
+                "comparisonPredicate=" + comparisonPredicate +
+                ", sqlStatement='\n" + sqlStatement + '\'' +
+                '}';
+    }
+
+    /**
+     * Result of one {@link #execute(String, QueryExecutor.Mapper) execution}
+     *
+     * @param value      mapper result
+     * @param statistics {@link Statistics} of the execution
+     * @param <R>        type of mapper result
+     */
+    public record Result<R>(R value, Statistics statistics) {
+    }
+
+    /**
+     * Statistics of one {@link #execute(String, QueryExecutor.Mapper) execution}
+     *
+     * @param sql          executed SQL query
+     * @param records      number of records in the result set
+     * @param openNanos    time of the connection acquiring and the query opening, ns
+     * @param fetchNanos   time of the result mapping, ns
+     */
+    public record Statistics(String sql, long records, long openNanos, long fetchNanos) {
+        /**
+         * Returns total time of the execution
+         *
+         * @return open and fetch time, ns
+         */
+        public long totalNanos() {
+            return openNanos + fetchNanos;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.jisj.winsearch;
+
+import com.jisj.winsearch.properties.WinProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed search condition of <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-where">WHERE clause</a>
+ * over {@link WinProperty} columns.
+ * <p>The condition is rendered to Windows Search SQL when it is created: the values are escaped by {@link QueryBuilder#literal(Object)},
+ * the {@link #param(String) parameters} are kept as placeholders and bound by {@link SelectQuery#bind(java.util.Map)}
+ * <p>Usage:
+ * <pre>{@code      Condition condition = Condition.and(
+ *              Condition.gt(Core.SystemSize, Condition.param("minSize")),
+ *              Condition.in(Core.SystemFileExtension, ".txt", ".md"),
+ *              Condition.not(Condition.like(Core.SystemFileName, "~%")));
+ *      }
+ * </pre>
+ */
+public final class Condition {
+    private final List<Object> parts;
+
+    /**
+     * Placeholder of the bound parameter
+     *
+     * @param name name of parameter
+     */
+    public record Param(String name) {
+        @Override
+        public String toString() {
+            return ":" + name;
+        }
+    }
+
+    private Condition(List<Object> parts) {
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Creates placeholder of the parameter, that can be used as a value of condition
+     *
+     * @param name name of parameter
+     * @return {@link Param} object
+     */
+    public static Param param(String name) {
+        if (name == null || name.isBlank()) throw new IllegalArgumentException("Parameter name cannot be empty");
+        return new Param(name);
+    }
+
+    /**
+     * {@code <property> = <value>}
+     *
+     * @param property column
+     * @param value    {@link Number}, {@link Boolean}, {@link java.util.Date}, {@link String} or {@link Param}
+     * @return condition
+     */
+    public static Condition eq(WinProperty property, Object value) {
+        return compare(property, "=", value);
+    }
+
+    /**
+     * {@code <property> <> <value>}
+     *
+     * @param property column
+     * @param value    value or {@link Param}
+     * @return condition
+     */
+    public static Condition ne(WinProperty property, Object value) {
+        return compare(property, "<>", value);
+    }
+
+    /**
+     * {@code <property> < <value>}
+     *
+     * @param property column
+     * @param value    value or {@link Param}
+     * @return condition
+     */
+    public static Condition lt(WinProperty property, Object value) {
+        return compare(property, "<", value);
+    }
+
+    /**
+     * {@code <property> <= <value>}
+     *
+     * @param property column
+     * @param value    value or {@link Param}
+     * @return condition
+     */
+    public static Condition le(WinProperty property, Object value) {
+        return compare(property, "<=", value);
+    }
+
+    /**
+     * {@code <property> > <value>}
+     *
+     * @param property column
+     * @param value    value or {@link Param}
+     * @return condition
+     */
+    public static Condition gt(WinProperty property, Object value) {
+        return compare(property, ">", value);
+    }
+
+    /**
+     * {@code <property> >= <value>}
+     *
+     * @param property column
+     * @param value    value or {@link Param}
+     * @return condition
+     */
+    public static Condition ge(WinProperty property, Object value) {
+        return compare(property, ">=", value);
+    }
+
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-like">LIKE</a> predicate:
+     * {@code <property> LIKE '<pattern>'}
+     *
+     * @param property column
+     * @param pattern  pattern with wildcards % and _, or {@link Param}
+     * @return condition
+     */
+    public static Condition like(WinProperty property, Object pattern) {
+        return compare(property, "LIKE", pattern);
+    }
+
+    /**
+     * Matches any of the values: {@code (<property> = <value1> OR <property> = <value2> ...)}
+     *
+     * @param property column
+     * @param values   values or {@link Param}s
+     * @return condition
+     */
+    public static Condition in(WinProperty property, Object... values) {
+        if (values.length == 0) throw new IllegalArgumentException("IN condition requires values");
+        return or(Arrays.stream(values).map(value -> eq(property, value)).toArray(Condition[]::new));
+    }
+
+    /**
+     * Half-open range, for ex. of dates: {@code (<property> >= <from> AND <property> < <to>)}
+     *
+     * @param property column
+     * @param from     inclusive lower limit or {@link Param}
+     * @param to       exclusive upper limit or {@link Param}
+     * @return condition
+     */
+    public static Condition range(WinProperty property, Object from, Object to) {
+        return and(ge(property, from), lt(property, to));
+    }
+
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-arraypredicates">ARRAY</a> predicate
+     * for multi-valued property: {@code <property> = SOME ARRAY[<value1>, <value2> ...]}
+     *
+     * @param property multi-valued column, for ex. {@link com.jisj.winsearch.properties.Core#SystemKind System.Kind}
+     * @param values   values or {@link Param}s
+     * @return condition
+     */
+    public static Condition anyOf(WinProperty property, Object... values) {
+        return array(property, "SOME", values);
+    }
+
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-arraypredicates">ARRAY</a> predicate
+     * for multi-valued property: {@code <property> = ALL ARRAY[<value1>, <value2> ...]}
+     *
+     * @param property multi-valued column
+     * @param values   values or {@link Param}s
+     * @return condition
+     */
+    public static Condition allOf(WinProperty property, Object... values) {
+        return array(property, "ALL", values);
+    }
+
+    /**
+     * Full-text predicate {@code CONTAINS(*, '<condition>')}
+     *
+     * @param condition contains condition or {@link Param}
+     * @return condition
+     */
+    public static Condition contains(Object condition) {
+        return fullText(QueryBuilder.ComparisonPredicate.Contains, "*", condition);
+    }
+
+    /**
+     * Full-text predicate {@code CONTAINS(<property>, '<condition>')}
+     *
+     * @param property  full-text column
+     * @param condition contains condition or {@link Param}
+     * @return condition
+     */
+    public static Condition contains(WinProperty property, Object condition) {
+        return fullText(QueryBuilder.ComparisonPredicate.Contains, property.getName(), condition);
+    }
+
+    /**
+     * Full-text predicate {@code FREETEXT(*, '<condition>')}
+     *
+     * @param condition freetext condition or {@link Param}
+     * @return condition
+     */
+    public static Condition freeText(Object condition) {
+        return fullText(QueryBuilder.ComparisonPredicate.FreeText, "*", condition);
+    }
+
+    /**
+     * Conjunction of the conditions: {@code (<c1> AND <c2> ...)}
+     *
+     * @param conditions conditions
+     * @return condition | the condition itself, when it is single
+     */
+    public static Condition and(Condition... conditions) {
+        return join("AND", conditions);
+    }
+
+    /**
+     * Disjunction of the conditions: {@code (<c1> OR <c2> ...)}
+     *
+     * @param conditions conditions
+     * @return condition | the condition itself, when it is single
+     */
+    public static Condition or(Condition... conditions) {
+        return join("OR", conditions);
+    }
+
+    /**
+     * Negation of the condition: {@code NOT (<c>)}
+     *
+     * @param condition condition
+     * @return condition
+     */
+    public static Condition not(Condition condition) {
+        List<Object> parts = new ArrayList<>();
+        parts.add("NOT (");
+        parts.addAll(condition.parts);
+        parts.add(")");
+        return new Condition(parts);
+    }
+
+    /**
+     * Rendered SQL parts: {@link String} chunks and {@link Param} placeholders
+     */
+    List<Object> parts() {
+        return parts;
+    }
+
+    private static Condition compare(WinProperty property, String operator, Object value) {
+        List<Object> parts = new ArrayList<>();
+        parts.add(property.getName() + " " + operator + " ");
+        parts.add(value(value));
+        return new Condition(parts);
+    }
+
+    private static Condition array(WinProperty property, String quantifier, Object... values) {
+        if (values.length == 0) throw new IllegalArgumentException("ARRAY condition requires values");
+        List<Object> parts = new ArrayList<>();
+        parts.add(property.getName() + " = " + quantifier + " ARRAY[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) parts.add(", ");
+            parts.add(value(values[i]));
+        }
+        parts.add("]");
+        return new Condition(parts);
+    }
+
+    private static Condition fullText(QueryBuilder.ComparisonPredicate predicate, String column, Object condition) {
+        List<Object> parts = new ArrayList<>();
+        parts.add(predicate.getPredicate() + "(" + column + ", ");
+        parts.add(value(condition instanceof Param ? condition : condition.toString()));
+        parts.add(")");
+        return new Condition(parts);
+    }
+
+    private static Condition join(String operator, Condition... conditions) {
+        if (conditions.length == 0) throw new IllegalArgumentException(operator + " condition requires conditions");
+        if (conditions.length == 1) return conditions[0];
+        List<Object> parts = new ArrayList<>();
+        parts.add("(");
+        for (int i = 0; i < conditions.length; i++) {
+            if (i > 0) parts.add(" " + operator + " ");
+            parts.addAll(conditions[i].parts);
+        }
+        parts.add(")");
+        return new Condition(parts);
+    }
+
+    private static Object value(Object value) {
+        return value instanceof Param ? value : QueryBuilder.literal(value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        parts.forEach(builder::append);
+        return builder.toString();
+    }
+}
@@ -1,25 +1,55 @@
 package com.jisj.winsearch;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 /**
  * Helper class for a find string prepare
+ * <p>The string is sanitized in one scan without regular expressions: the illegal symbols are replaced, the special symbols
+ * are escaped and the spaces are detected in the same pass. If nothing needs changing, the same string instance is returned
  */
 public class FindStringBuilder {
-    private String str;
-
-    private FindStringBuilder(String str) {
-        this.str = str;
-    }
+    private static final char ILLEGAL_REPLACEMENT = '_';
+    private static final Rules ANY_OF_TERM = new Rules("", true, false);
+    private static final Rules STRICT_MATCH = new Rules(Rules.CONTAINS.illegals(), false, false);
 
-    private void encloseInQuotations() {
-        str = "\"" + str + "\"";
+    private FindStringBuilder() {
     }
 
-    private void removeIllegals() {
-        str = str.replaceAll("[\\n.!,)(]", "_");
-    }
+    /**
+     * Rules of the find string sanitizing
+     *
+     * @param illegals      symbols replaced by '_'
+     * @param removeQuotes  true if quotation marks are removed
+     * @param encloseSpaced true if the string with spaces is enclosed in quotation marks, when it is not enclosed yet
+     */
+    public record Rules(String illegals, boolean removeQuotes, boolean encloseSpaced) {
+        /**
+         * Rules for {@link QueryBuilder.ComparisonPredicate#Contains CONTAINS}: illegal symbols {@code \n.!,)(}, phrase in quotation marks
+         */
+        public static final Rules CONTAINS = new Rules("\n.!,)(", false, true);
+        /**
+         * Rules for {@link QueryBuilder.ComparisonPredicate#FreeText FREETEXT}: only escaping
+         */
+        public static final Rules FREETEXT = new Rules("", false, false);
+        /**
+         * Rules for {@link QueryBuilder.ComparisonPredicate#EqualTo =}: only escaping
+         */
+        public static final Rules EQUAL_TO = new Rules("", false, false);
 
-    private void replaceSpecial() {
-        str = str.replaceAll("'", "''");
+        /**
+         * Returns rules of the predicate
+         *
+         * @param predicate {@link QueryBuilder.ComparisonPredicate}
+         * @return rules
+         */
+        public static Rules of(QueryBuilder.ComparisonPredicate predicate) {
+            return switch (predicate) {
+                case Contains -> CONTAINS;
+                case FreeText -> FREETEXT;
+                case EqualTo -> EQUAL_TO;
+            };
+        }
     }
 
     /**
@@ -34,11 +64,7 @@ public class FindStringBuilder {
      * @return result string
      */
     public static String build(String findStr, boolean strictMatch) {
-        FindStringBuilder builder = new FindStringBuilder(findStr);
-        builder.removeIllegals();
-        builder.replaceSpecial();
-        if (!strictMatch && findStr.contains(" ")) builder.encloseInQuotations();
-        return builder.str;
+        return sanitize(findStr, strictMatch ? STRICT_MATCH : Rules.CONTAINS);
     }
 
     /**
@@ -51,7 +77,78 @@ public class FindStringBuilder {
      * @return result string
      */
     public static String build(String findStr) {
-        return findStr.replaceAll("'", "''");
+        return sanitize(findStr, Rules.EQUAL_TO);
+    }
+
+    /**
+     * Builder for a find string by the {@link Rules#of(QueryBuilder.ComparisonPredicate) rules of predicate}
+     *
+     * @param findStr   initial string
+     * @param predicate {@link QueryBuilder.ComparisonPredicate}
+     * @return result string
+     */
+    public static String build(String findStr, QueryBuilder.ComparisonPredicate predicate) {
+        return sanitize(findStr, Rules.of(predicate));
+    }
+
+    /**
+     * Sanitizes the string in one scan: replaces illegal symbols, removes quotation marks (if needed),
+     * replaces ' by '' and encloses the string with spaces in quotation marks (if needed)
+     *
+     * @param str   initial string
+     * @param rules {@link Rules}
+     * @return result string | the same string, if nothing needs changing
+     */
+    public static String sanitize(String str, Rules rules) {
+        final int length = str.length();
+        final boolean enclosed = isQuotationEnclosed(str);
+        StringBuilder builder = null;
+        boolean space = false;
+        for (int i = 0; i < length; i++) {
+            char ch = str.charAt(i);
+            boolean quote = ch == '"' && rules.removeQuotes();
+            boolean illegal = !quote && rules.illegals().indexOf(ch) >= 0;
+            if (ch == ' ') space = true;
+            if (builder == null) {
+                if (!quote && !illegal && ch != '\'') continue;
+                builder = new StringBuilder(length + 16);
+                builder.append(str, 0, i);
+            }
+            if (quote) continue;
+            if (illegal) builder.append(ILLEGAL_REPLACEMENT);
+            else if (ch == '\'') builder.append("''");
+            else builder.append(ch);
+        }
+        if (rules.encloseSpaced() && space && !enclosed) {
+            if (builder == null) return '"' + str + '"';
+            return builder.insert(0, '"').append('"').toString();
+        }
+        return builder == null ? str : builder.toString();
+    }
+
+    /**
+     * Builder for a find string matching any of the terms
+     * <ul>
+     *     <li>{@link QueryBuilder.ComparisonPredicate#Contains CONTAINS}: {@code "term1" OR "term2" ...}</li>
+     *     <li>{@link QueryBuilder.ComparisonPredicate#FreeText FREETEXT}: {@code term1 term2 ...}</li>
+     * </ul>
+     * Quotation marks in terms are removed, special symbols are replaced
+     *
+     * @param terms     terms to find
+     * @param predicate full-text predicate
+     * @return result string
+     * @throws IllegalArgumentException for not full-text predicate
+     */
+    public static String buildAnyOf(Collection<String> terms, QueryBuilder.ComparisonPredicate predicate) {
+        return switch (predicate) {
+            case Contains -> terms.stream()
+                    .map(term -> '"' + sanitize(term, ANY_OF_TERM) + '"')
+                    .collect(Collectors.joining(" OR "));
+            case FreeText -> terms.stream()
+                    .map(term -> sanitize(term, ANY_OF_TERM))
+                    .collect(Collectors.joining(" "));
+            default -> throw new IllegalArgumentException("Predicate " + predicate + " is not full-text predicate");
+        };
     }
 
     /**
@@ -60,6 +157,17 @@ public class FindStringBuilder {
      * @return true if string is enclosed in quotation marks
      */
     public static boolean isQuotationEnclosed(String str) {
-        return str.startsWith("\"") && str.endsWith("\"");
+        return str.length() > 1 && str.charAt(0) == '"' && str.charAt(str.length() - 1) == '"';
+    }
+
+    /**
+     * Check the string for {@link QueryBuilder.ComparisonPredicate#Contains CONTAINS} predicate: a phrase with spaces
+     * should be enclosed in quotation marks
+     *
+     * @param str string
+     * @return true if string contains spaces and is not enclosed in quotation marks
+     */
+    public static boolean needsQuotation(String str) {
+        return !isQuotationEnclosed(str) && str.indexOf(' ') >= 0;
     }
 }
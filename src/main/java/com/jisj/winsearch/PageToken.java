@@ -0,0 +1,85 @@
+package com.jisj.winsearch;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Opaque continuation token of the keyset pagination.
+ * Keeps typed key values of the last row of page, so the values are escaped again when the next page query is built.
+ * NULL key values are kept too, dates are kept with milliseconds
+ */
+final class PageToken {
+
+    private PageToken() {
+    }
+
+    /**
+     * Encodes key values to the URL-safe token. Each value is written as {@code <type><length>:<value>},
+     * so the values can contain any symbols
+     *
+     * @param values key values of the last row of page
+     * @return token string
+     */
+    static String encode(List<?> values) {
+        StringBuilder builder = new StringBuilder();
+        for (Object value : values) {
+            String str = switch (value) {
+                case null -> "";
+                case Date date -> String.valueOf(date.getTime());
+                default -> value.toString();
+            };
+            char type = switch (value) {
+                case null -> 'Z';
+                case Number number -> 'N';
+                case Date date -> 'D';
+                default -> 'S';
+            };
+            builder.append(type).append(str.length()).append(':').append(str);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes key values from the token
+     *
+     * @param token  token string created by {@link #encode(List)}
+     * @param length expected number of key values
+     * @return key values
+     * @throws IllegalArgumentException when the token is not valid
+     */
+    static List<Object> decode(String token, int length) {
+        List<Object> values = new ArrayList<>();
+        try {
+            String str = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int pos = 0;
+            while (pos < str.length()) {
+                char type = str.charAt(pos);
+                int colon = str.indexOf(':', pos);
+                if (colon < 0) throw new IllegalArgumentException("Missed length of value");
+                int end = colon + 1 + Integer.parseInt(str.substring(pos + 1, colon));
+                String value = str.substring(colon + 1, end);
+                pos = end;
+                values.add(switch (type) {
+                    case 'N' -> new BigDecimal(value);
+                    case 'D' -> new Date(Long.parseLong(value));
+                    case 'S' -> value;
+                    case 'Z' -> {
+                        if (!value.isEmpty()) throw new IllegalArgumentException("Unexpected value of NULL: " + value);
+                        yield null;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown type of value: " + type);
+                });
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+        if (values.size() != length)
+            throw new IllegalArgumentException("Invalid continuation token: " + token);
+        return values;
+    }
+}
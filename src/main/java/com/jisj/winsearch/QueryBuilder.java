@@ -3,6 +3,8 @@ package com.jisj.winsearch;
 import com.jisj.winsearch.properties.WinProperty;
 
 import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -11,6 +13,7 @@ import java.util.stream.Collectors;
  */
 public class QueryBuilder {
     private static final String DELIMITER = ", ";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
 
     private QueryBuilder() {
     }
@@ -120,6 +123,275 @@ public class QueryBuilder {
         );
     }
 
+    /**
+     * Build the SQL query of all the items in the folders, without full-text or comparison predicate:<br>
+     * {@code SELECT <columns> FROM SystemIndex [WHERE (SCOPE='...' OR DIRECTORY='...')]}
+     *
+     * @param properties for select clause column
+     * @param folders    where will be done the searching, Set of {@link Folder Folder}. Empty set for the whole index
+     * @return SQL string without format specifiers
+     */
+    public static String buildScope(List<String> properties, Set<Folder> folders) {
+        if (properties.isEmpty())
+            throw new IllegalArgumentException("The property list cannot be empty");
+        List<String> statement = new ArrayList<>();
+        statement.add(buildSelectClause(properties));
+        statement.add("FROM SystemIndex");
+        buildFolderPart(folders)
+                .filter(str -> !str.isEmpty())
+                .map(str -> "WHERE (" + str + ")")
+                .ifPresent(statement::add);
+        return String.join("\n", statement);
+    }
+
+    /**
+     * Build the aggregation query with <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-groupon">GROUP ON</a> clause:<br>
+     * {@code GROUP ON <column1> [<ranges>] OVER (GROUP ON <column2> OVER (SELECT ...))}
+     * <p>The result is hierarchical Recordset: each row of a group level contains the group column and the Chapter column
+     * with Recordset of the next level
+     *
+     * @param groups group levels from the outer to the inner, see {@link GroupOn}
+     * @param sql    SQL query "SELECT ... FROM SystemIndex ..."
+     * @return SQL query "GROUP ON ... OVER (SELECT ...)"
+     */
+    public static String buildGroupOn(List<GroupOn> groups, String sql) {
+        if (groups.isEmpty()) throw new IllegalArgumentException("The group list cannot be empty");
+        String statement = sql.strip();
+        for (GroupOn group : groups.reversed()) {
+            statement = "GROUP ON " + group.getColumn() +
+                    (group.getRanges().isEmpty() ? "" : " [" + group.getRanges().stream()
+                            .map(QueryBuilder::literal)
+                            .collect(Collectors.joining(DELIMITER)) + "]") +
+                    " OVER (" + statement + ")";
+        }
+        return statement;
+    }
+
+    /**
+     * Returns column names of SELECT clause of the SQL query
+     *
+     * @param sql SQL query "SELECT [TOP n] &lt;columns&gt; FROM ..."
+     * @return list of column names
+     * @throws IllegalArgumentException when SELECT ... FROM clause not found
+     */
+    public static List<String> selectColumns(String sql) {
+        int select = findKeyword(sql, 0, "SELECT");
+        int from = findKeyword(sql, 0, "FROM");
+        if (select < 0 || from < select)
+            throw new IllegalArgumentException("SELECT ... FROM clause not found in query:\n" + sql);
+        int start = select + "SELECT".length();
+        int top = findKeyword(sql, start, "TOP");
+        if (top >= 0 && top < from && sql.substring(start, top).isBlank())
+            start = skipWord(sql, skipWord(sql, top));
+        return Arrays.stream(sql.substring(start, from).split(","))
+                .map(String::trim)
+                .filter(column -> !column.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Adds the columns to SELECT clause of the SQL query. Columns which already selected are ignored
+     *
+     * @param sql     SQL query
+     * @param columns column names
+     * @return SQL query with added columns
+     */
+    public static String withColumns(String sql, List<String> columns) {
+        List<String> selected = selectColumns(sql);
+        List<String> added = columns.stream()
+                .filter(column -> selected.stream().noneMatch(column::equalsIgnoreCase))
+                .distinct()
+                .toList();
+        if (added.isEmpty()) return sql;
+        int from = findKeyword(sql, 0, "FROM");
+        String head = sql.substring(0, from).stripTrailing();
+        return head + DELIMITER + String.join(DELIMITER, added) + sql.substring(head.length());
+    }
+
+    /**
+     * Replaces the column list of SELECT clause. TOP clause is kept
+     *
+     * @param sql     SQL query
+     * @param columns column names
+     * @return SQL query "SELECT [TOP n] &lt;columns&gt; FROM ..."
+     */
+    public static String withSelectColumns(String sql, List<String> columns) {
+        if (columns.isEmpty()) throw new IllegalArgumentException("The column list cannot be empty");
+        int select = findKeyword(sql, 0, "SELECT");
+        int from = findKeyword(sql, 0, "FROM");
+        if (select < 0 || from < select)
+            throw new IllegalArgumentException("SELECT ... FROM clause not found in query:\n" + sql);
+        int start = select + "SELECT".length();
+        int top = findKeyword(sql, start, "TOP");
+        if (top >= 0 && top < from && sql.substring(start, top).isBlank())
+            start = skipWord(sql, skipWord(sql, top));
+        int end = sql.substring(0, from).stripTrailing().length();
+        return sql.substring(0, start) + " " + String.join(DELIMITER, columns.stream().distinct().toList()) + sql.substring(end);
+    }
+
+    /**
+     * Sets <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-top">TOP</a> clause of the SQL query. Existing TOP clause is replaced
+     *
+     * @param sql SQL query
+     * @param top maximum number of rows
+     * @return SQL query "SELECT TOP &lt;top&gt; ..."
+     */
+    public static String withTop(String sql, int top) {
+        if (top <= 0) throw new IllegalArgumentException("TOP value must be positive: " + top);
+        int select = findKeyword(sql, 0, "SELECT");
+        if (select < 0) throw new IllegalArgumentException("SELECT clause not found in query:\n" + sql);
+        int start = select + "SELECT".length();
+        int topIdx = findKeyword(sql, start, "TOP");
+        if (topIdx >= 0 && sql.substring(start, topIdx).isBlank())
+            start = skipWord(sql, skipWord(sql, topIdx));
+        return sql.substring(0, select) + "SELECT TOP " + top + " " + sql.substring(start).stripLeading();
+    }
+
+    /**
+     * Limits the number of rows of the SQL query: sets the <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-top">TOP</a> clause,
+     * if the query has no TOP clause or the existing value is greater
+     *
+     * @param sql     SQL query
+     * @param maxRows maximum number of rows
+     * @return SQL query "SELECT TOP &lt;n&gt; ..."
+     */
+    public static String withMaxRows(String sql, int maxRows) {
+        int select = findKeyword(sql, 0, "SELECT");
+        if (select < 0) throw new IllegalArgumentException("SELECT clause not found in query:\n" + sql);
+        int start = select + "SELECT".length();
+        int topIdx = findKeyword(sql, start, "TOP");
+        if (topIdx >= 0 && sql.substring(start, topIdx).isBlank()) {
+            int valueStart = skipWord(sql, topIdx);
+            String value = sql.substring(valueStart, skipWord(sql, valueStart)).strip();
+            try {
+                if (Long.parseLong(value) <= maxRows) return sql;
+            } catch (NumberFormatException e) {
+                //not a number, TOP is replaced
+            }
+        }
+        return withTop(sql, maxRows);
+    }
+
+    /**
+     * Sets <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-orderby">ORDER BY</a> clause of the SQL query. Existing ORDER BY clause is replaced
+     *
+     * @param sql   SQL query
+     * @param terms ordering terms, for ex.: "System.ItemUrl", "System.Search.Rank DESC"
+     * @return SQL query "... ORDER BY &lt;terms&gt;"
+     */
+    public static String withOrderBy(String sql, List<String> terms) {
+        if (terms.isEmpty()) throw new IllegalArgumentException("ORDER BY terms cannot be empty");
+        int orderBy = findKeyword(sql, 0, "ORDER", "BY");
+        String head = (orderBy < 0 ? sql : sql.substring(0, orderBy)).stripTrailing();
+        return head + "\nORDER BY " + String.join(DELIMITER, terms);
+    }
+
+    /**
+     * Adds the condition to WHERE clause of the SQL query with AND operator
+     *
+     * @param sql       SQL query
+     * @param condition search condition, for ex.: "System.Size > 1024"
+     * @return SQL query "... WHERE ... AND (&lt;condition&gt;) [ORDER BY ...]"
+     */
+    public static String withCondition(String sql, String condition) {
+        int orderBy = findKeyword(sql, 0, "ORDER", "BY");
+        String head = (orderBy < 0 ? sql : sql.substring(0, orderBy)).stripTrailing();
+        String tail = orderBy < 0 ? "" : "\n" + sql.substring(orderBy);
+        return head + (findKeyword(head, 0, "WHERE") < 0 ? "\nWHERE " : " AND ") + "(" + condition + ")" + tail;
+    }
+
+    /**
+     * Builds keyset condition for the ascending ordering on the key columns, NULL is the lowest value:<br>
+     * {@code k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...}
+     * <p>NULL value gives {@code k IS NOT NULL} instead of {@code k > v} and {@code k IS NULL} instead of {@code k = v}.
+     * The date literal has precision of seconds, so the date value gives {@code k >= v} and ends the condition.
+     * The condition with the date value also includes the rows of the same second that are not after the key,
+     * they must be skipped by the caller
+     *
+     * @param columns key column names
+     * @param values  key values of the last retrieved row, see {@link #literal(Object)}
+     * @return condition string
+     */
+    public static String buildKeysetCondition(List<String> columns, List<?> values) {
+        if (columns.isEmpty() || columns.size() != values.size())
+            throw new IllegalArgumentException("Key columns and values do not match: " + columns + " " + values);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            List<String> term = new ArrayList<>();
+            for (int j = 0; j < i; j++)
+                term.add(columns.get(j) + (values.get(j) == null ? " IS NULL" : " = " + literal(values.get(j))));
+            Object value = values.get(i);
+            term.add(columns.get(i) + (value == null ? " IS NOT NULL"
+                    : (value instanceof java.util.Date ? " >= " : " > ") + literal(value)));
+            terms.add(term.size() == 1 ? term.getFirst() : "(" + String.join(" AND ", term) + ")");
+            if (value instanceof java.util.Date) break;
+        }
+        return String.join(" OR ", terms);
+    }
+
+    /**
+     * Converts the value to SQL literal
+     * <ul>
+     *     <li>{@link Number} - as is</li>
+     *     <li>{@link Boolean} - TRUE | FALSE</li>
+     *     <li>{@link java.util.Date} - 'yyyy/MM/dd HH:mm:ss'</li>
+     *     <li>others - string enclosed in single quotation marks with replaced special symbols</li>
+     * </ul>
+     *
+     * @param value value
+     * @return SQL literal string
+     */
+    public static String literal(Object value) {
+        if (value == null) throw new IllegalArgumentException("NULL literal is not supported");
+        if (value instanceof Number) return value.toString();
+        if (value instanceof Boolean bool) return bool ? "TRUE" : "FALSE";
+        if (value instanceof java.util.Date date)
+            return "'" + DATE_FORMAT.format(date.toInstant().atZone(ZoneId.systemDefault())) + "'";
+        return "'" + FindStringBuilder.build(value.toString()) + "'";
+    }
+
+    /**
+     * Searches keyword outside string literals. Words of the keyword are separated by whitespaces
+     *
+     * @param sql   SQL query
+     * @param from  start index
+     * @param words words of keyword, for ex.: "ORDER", "BY"
+     * @return index of keyword | -1 if not found
+     */
+    private static int findKeyword(String sql, int from, String... words) {
+        boolean quoted = false;
+        for (int i = from; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (ch == '\'') quoted = !quoted;
+            if (quoted || !isWordStart(sql, i)) continue;
+            int pos = i;
+            for (String word : words) {
+                while (pos < sql.length() && Character.isWhitespace(sql.charAt(pos))) pos++;
+                if (!sql.regionMatches(true, pos, word, 0, word.length())) {
+                    pos = -1;
+                    break;
+                }
+                pos += word.length();
+            }
+            if (pos >= 0 && (pos == sql.length() || !isWordChar(sql.charAt(pos)))) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isWordStart(String sql, int i) {
+        return isWordChar(sql.charAt(i)) && (i == 0 || !isWordChar(sql.charAt(i - 1)));
+    }
+
+    private static boolean isWordChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '.';
+    }
+
+    private static int skipWord(String sql, int i) {
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) i++;
+        while (i < sql.length() && !Character.isWhitespace(sql.charAt(i))) i++;
+        return i;
+    }
+
     private static String buildSelectClause(List<String> properties) {
         return "SELECT " + String.join(DELIMITER, properties);
     }
@@ -147,7 +419,7 @@ public class QueryBuilder {
      */
     private static Optional<String> buildFolderPart(Set<Folder> folders) {
         final String FOLDER_DELIMITER = " OR ";
-        return Optional.of(folders.stream()
+        return Optional.of(compactFolders(folders).stream()
                 .sorted(Comparator.comparing(Folder::getPath))
                 .map(folder -> folder.getDepth().getPredicate() + "='" +
                         folder.getPath().toUri().getScheme() + ":" +
@@ -155,6 +427,43 @@ public class QueryBuilder {
                 .collect(Collectors.joining(FOLDER_DELIMITER)));
     }
 
+    /**
+     * Normalizes the search scopes to the minimal set of folders:
+     * <ul>
+     *     <li>the paths are canonicalized: absolute, normalized, compared case-insensitive as in Windows file system</li>
+     *     <li>duplicate folders are merged, {@link DepthPredicate#Deep Deep} depth wins over {@link DepthPredicate#Shallow Shallow}</li>
+     *     <li>folders inside a {@link DepthPredicate#Deep Deep} folder are removed, they are subsumed by the ancestor scope</li>
+     * </ul>
+     *
+     * @param folders folders in any order
+     * @return set of canonical folders in order of paths
+     */
+    public static Set<Folder> compactFolders(Collection<Folder> folders) {
+        Map<String, Folder> merged = new HashMap<>();
+        for (Folder folder : folders) {
+            Path path = folder.getPath().toAbsolutePath().normalize();
+            merged.merge(folderKey(path), Folder.of(path, folder.getDepth()),
+                    (a, b) -> a.getDepth() == DepthPredicate.Deep ? a : b);
+        }
+        Set<Folder> compacted = new TreeSet<>(Comparator.comparing(folder -> folderKey(folder.getPath())));
+        for (Folder folder : merged.values()) {
+            boolean subsumed = false;
+            for (Path parent = folder.getPath().getParent(); parent != null && !subsumed; parent = parent.getParent()) {
+                Folder ancestor = merged.get(folderKey(parent));
+                subsumed = ancestor != null && ancestor.getDepth() == DepthPredicate.Deep;
+            }
+            if (!subsumed) compacted.add(folder);
+        }
+        return compacted;
+    }
+
+    /**
+     * Case-insensitive key of the canonical path with the unified separators
+     */
+    private static String folderKey(Path path) {
+        return path.toString().replace('/', '\\').toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Build <a href="https://learn.microsoft.com/en-us/windows/win32/search/-search-sql-fulltextpredicates">Full-Text predicates</a> part of WHERE clause:<br>
      * {@code
@@ -244,6 +553,57 @@ public class QueryBuilder {
         }
     }
 
+    /**
+     * Group level of {@link #buildGroupOn(List, String) GROUP ON} clause: column and optional range limits
+     */
+    public static class GroupOn {
+        private final String column;
+        private final List<Object> ranges;
+
+        private GroupOn(String column, List<Object> ranges) {
+            this.column = column;
+            this.ranges = ranges;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public List<Object> getRanges() {
+            return ranges;
+        }
+
+        /**
+         * Creates {@link GroupOn}
+         *
+         * @param column {@link String} name of group column
+         * @param ranges Optional. Ascending range limits ({@link Number}, {@link java.util.Date} or {@link String}), for ex.: 0, 1024, 1048576
+         * @return new {@link GroupOn} object
+         */
+        public static GroupOn of(String column, Object... ranges) {
+            return new GroupOn(column, List.of(ranges));
+        }
+
+        /**
+         * Creates {@link GroupOn}
+         *
+         * @param column {@link WinProperty} group column
+         * @param ranges Optional. Ascending range limits ({@link Number}, {@link java.util.Date} or {@link String})
+         * @return new {@link GroupOn} object
+         */
+        public static GroupOn of(WinProperty column, Object... ranges) {
+            return of(column.getName(), ranges);
+        }
+
+        @Override
+        public String toString() {
+            return "GroupOn{" +
+                    "column=" + column +
+                    ", ranges=" + ranges +
+                    '}';
+        }
+    }
+
     /**
      * Container for pair {@link Path}:{@link DepthPredicate Traversal}
      */
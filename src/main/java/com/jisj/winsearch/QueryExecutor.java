@@ -1,13 +1,32 @@
 package com.jisj.winsearch;
 
+import com.jisj.winsearch.ado.ADOFields;
+import com.jisj.winsearch.ado.ADORecordset;
+import com.jisj.winsearch.properties.Core;
+import com.jisj.winsearch.properties.Search;
 import com.jisj.winsearch.properties.WinProperty;
+import com.jisj.winsearch.sql.Projection;
+import com.jisj.winsearch.sql.ResultSetPublisher;
+import com.jisj.winsearch.sql.ResultTable;
+import com.jisj.winsearch.sql.RowMapper;
 import com.jisj.winsearch.sql.WinSearchConnection;
+import com.jisj.winsearch.sql.WinSearchDataSource;
 import com.jisj.winsearch.sql.WinSearchStatement;
 import com.jisj.winsearch.sql.WinSearchResultSet;
+import com.jisj.winsearch.sql.WinSearchSQLException;
+import com.jisj.winsearch.utils.TopK;
 
+import com.sun.jna.platform.win32.COM.COMInvokeException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,16 +59,46 @@ import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.FreeText;
  *         executor.setConnection(con);
  *         executor.find(smth, true [, mapper]);}
  * </pre>
+ * The executor is not thread-safe. For concurrent use compile it to the immutable {@link CompiledQuery}:
+ * <pre>{@code      CompiledQuery query = QueryExecutor.builder()
+ *              ...
+ *              .dataSource(DataSource) // optional
+ *              .compile();}
+ * </pre>
  */
 public class QueryExecutor {
     private static final Mapper<Stream<WinSearchResultSet>> DEFAULT_MAPPER = stream -> stream;
+    /**
+     * Default number of concurrent queries of {@link #findAll(Collection, RowMapper) batched search}
+     */
+    public static final int BATCH_PARALLELISM = 4;
+    /**
+     * Maximum number of terms in one query of {@link #findAll(Collection, RowMapper) batched search}
+     */
+    public static final int BATCH_MAX_TERMS = 64;
+    /**
+     * Maximum length of full-text condition in one query of {@link #findAll(Collection, RowMapper) batched search}
+     */
+    public static final int BATCH_MAX_LENGTH = 2048;
+    private static final String CHAPTER_COLUMN = "Chapter";
+    /**
+     * Number of the COM threads shared by the subscriptions of all {@link #publisher(String, RowMapper) publishers}
+     */
+    public static final int PUBLISHER_THREADS = 4;
     private WinSearchConnection connection;
+    private DataSource dataSource;
     private String sqlStatement;
     private final List<String> propertyNames = new ArrayList<>();
     private final Set<QueryBuilder.Folder> folders = new HashSet<>();
     private QueryBuilder.ComparisonPredicate fullTextPredicate = FreeText;
     private final Set<String> fulltextColumns = new HashSet<>();
     private String resultStatement;
+    private String pageKey = Core.SystemItemUrl.getName();
+    private String watermarkColumn = Search.SystemSearchGatherTime.getName();
+    private int queryTimeout = 0;
+    private Duration idleTimeout = Duration.ofMinutes(1);
+    private final Map<String, Date> watermarks = new ConcurrentHashMap<>();
+    private final Map<Object, WinSearchStatement> sessions = new ConcurrentHashMap<>();
 
     private QueryExecutor() {
     }
@@ -81,7 +130,10 @@ public class QueryExecutor {
     }
 
     public void addFolders(Set<QueryBuilder.Folder> folders) {
-        this.folders.addAll(folders);
+        List<QueryBuilder.Folder> all = new ArrayList<>(this.folders);
+        all.addAll(folders);
+        this.folders.clear();
+        this.folders.addAll(QueryBuilder.compactFolders(all));
     }
 
     public Set<QueryBuilder.Folder> getFolders() {
@@ -118,6 +170,19 @@ public class QueryExecutor {
         this.connection = connection;
     }
 
+    /**
+     * Sets {@link DataSource} for {@link CompiledQuery compiled queries}
+     *
+     * @param dataSource default {@link WinSearchDataSource}
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
     public String getSqlStatement() {
         return sqlStatement;
     }
@@ -132,6 +197,84 @@ public class QueryExecutor {
         this.sqlStatement = sqlStatement;
     }
 
+    /**
+     * Sets the ordering key column of {@link #find(String, int, String, RowMapper) page search}
+     *
+     * @param pageKey column name, default {@link Core#SystemItemUrl System.ItemUrl}.
+     *                Rows with equal keys are ordered by {@link Core#SystemItemUrl System.ItemUrl}
+     */
+    public void setPageKey(String pageKey) {
+        this.pageKey = pageKey;
+    }
+
+    public String getPageKey() {
+        return pageKey;
+    }
+
+    /**
+     * Sets the date column of {@link #findChanges(String, RowMapper) delta search}
+     * <p>The default {@link Search#SystemSearchGatherTime System.Search.GatherTime} is set when the indexer pushes the item,
+     * so the delta includes the items copied, moved or extracted with the old {@link Core#SystemDateModified System.DateModified}
+     * and the items indexed late. The item is returned again when it is re-indexed without changes
+     *
+     * @param watermarkColumn column name, default {@link Search#SystemSearchGatherTime System.Search.GatherTime}
+     */
+    public void setWatermarkColumn(String watermarkColumn) {
+        this.watermarkColumn = watermarkColumn;
+    }
+
+    public String getWatermarkColumn() {
+        return watermarkColumn;
+    }
+
+    /**
+     * Sets the time budget of the queries of this executor, see {@link WinSearchStatement#setQueryTimeout(int)}
+     *
+     * @param seconds timeout, 0 (default) for no limit
+     * @throws IllegalArgumentException when the timeout is negative
+     */
+    public void setQueryTimeout(int seconds) {
+        if (seconds < 0) throw new IllegalArgumentException("Query timeout cannot be negative: " + seconds);
+        this.queryTimeout = seconds;
+    }
+
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * Sets the maximum time without demand of the subscriptions of {@link #publisher(String, RowMapper) publishers},
+     * after that the subscription is terminated and its connection is closed
+     *
+     * @param idleTimeout timeout, default 1 minute. {@link Duration#ZERO} for no limit
+     * @throws IllegalArgumentException when the timeout is negative
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        if (idleTimeout.isNegative()) throw new IllegalArgumentException("Idle timeout cannot be negative: " + idleTimeout);
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Returns the watermark remembered by {@link #findChanges(String, RowMapper) delta search}
+     *
+     * @param findStr String to find
+     * @return {@link Optional} of the watermark
+     */
+    public Optional<Date> getWatermark(String findStr) {
+        return Optional.ofNullable(watermarks.get(findStr));
+    }
+
+    /**
+     * Forgets all the remembered watermarks, the next {@link #findChanges(String, RowMapper) delta search} retrieves all rows
+     */
+    public void resetWatermarks() {
+        watermarks.clear();
+    }
+
     /**
      * Gets state of {@link WinSearchStatement WinSearchStatement} after query execution
      *
@@ -153,6 +296,19 @@ public class QueryExecutor {
                 fulltextColumns);
     }
 
+    /**
+     * Creates immutable {@link CompiledQuery} from the current SQL statement
+     * <p>Further changes of this executor do not affect the compiled query
+     *
+     * @return {@link CompiledQuery} object
+     * @throws NullPointerException when SQL statement is not set
+     */
+    public CompiledQuery compile() {
+        return new CompiledQuery(sqlStatement,
+                fullTextPredicate,
+                dataSourceOrDefault());
+    }
+
     /**
      * Finds the specified String with match condition. Overloaded method {@link #find(String, Mapper) find()}
      *
@@ -189,7 +345,7 @@ public class QueryExecutor {
         assertFindString(findStr);
 
         try {
-            Statement st = connection.createStatement();
+            Statement st = createStatement(connection);
             WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sqlStatement.formatted(findStr));
             resultStatement = st + "\nRecords retrieved: " + rs.size();
             return mapper.apply(rs.stream(st));
@@ -198,9 +354,766 @@ public class QueryExecutor {
         }
     }
 
+    /**
+     * Finds the specified String with match condition and materializes the result into the disconnected {@link ResultTable}.
+     * The statement and its Recordset are closed before the method returns, the table can be processed in other threads
+     *
+     * @param findStr String to find
+     * @return {@link ResultTable}
+     * @throws IllegalStateException when the connection is not set
+     */
+    public ResultTable findTable(String findStr) {
+        if (connection == null)
+            throw new IllegalStateException("Connection not set");
+        assertFindString(findStr);
+        try (Statement st = createStatement(connection)) {
+            WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sqlStatement.formatted(findStr));
+            ResultTable table = rs.toTable();
+            resultStatement = st + "\nRecords retrieved: " + table.size();
+            return table;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Finds the specified String in the session, the latest query wins: the running query of the same session
+     * is {@link WinSearchStatement#cancel() cancelled}, so it stops fetching and closes its recordset.
+     * <p>Each query acquires its own connection from the {@link DataSource} (default {@link WinSearchDataSource})
+     * on the calling thread, the connection is released after the mapper returns.
+     * The method can be called concurrently from different threads for the same session
+     *
+     * @param sessionKey key of the session, for ex. the search field
+     * @param findStr    String to find
+     * @param mapper     {@link Mapper Mapper&lt;R>}
+     * @param <R>        type of mapper result
+     * @return mapper result | empty {@link Optional} if the query was superseded by a newer query of the session
+     * @see #cancel(Object)
+     */
+    public <R> Optional<R> findLatest(Object sessionKey, String findStr, Mapper<R> mapper) {
+        assertFindString(findStr);
+        try (Connection con = dataSourceOrDefault().getConnection();
+             WinSearchStatement st = (WinSearchStatement) createStatement(con)) {
+            WinSearchStatement previous = sessions.put(sessionKey, st);
+            if (previous != null) previous.cancel();
+            try {
+                WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sqlStatement.formatted(findStr));
+                R result = mapper.apply(rs.stream());
+                return st.isCancelled() ? Optional.empty() : Optional.of(result);
+            } catch (SQLException e) {
+                if (st.isCancelled()) return Optional.empty();
+                throw e;
+            } finally {
+                sessions.remove(sessionKey, st);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Cancels the running query of the session started by {@link #findLatest(Object, String, Mapper) findLatest()}
+     *
+     * @param sessionKey key of the session
+     * @return true if a running query was cancelled
+     */
+    public boolean cancel(Object sessionKey) {
+        WinSearchStatement st = sessions.remove(sessionKey);
+        if (st == null) return false;
+        st.cancel();
+        return true;
+    }
+
+    /**
+     * Finds rows of the typed query. The properties, folders and predicate of this executor are not used
+     *
+     * @param query      compiled {@link SelectQuery}
+     * @param parameters values of the query parameters
+     * @param rowMapper  {@link RowMapper} for one row
+     * @param <T>        type of rows
+     * @return list of rows
+     * @throws IllegalStateException    when the connection is not set
+     * @throws IllegalArgumentException when a parameter value is not set
+     */
+    public <T> List<T> find(SelectQuery query, Map<String, ?> parameters, RowMapper<T> rowMapper) {
+        if (connection == null)
+            throw new IllegalStateException("Connection not set");
+        final String sql = project(query.bind(parameters), rowMapper);
+        try (Statement st = createStatement(connection)) {
+            WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sql);
+            resultStatement = st + "\nRecords retrieved: " + rs.size();
+            List<T> items = new ArrayList<>();
+            while (rs.next()) items.add(rowMapper.map(rs));
+            return items;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * One page of {@link #find(String, int, String, RowMapper) page search}
+     *
+     * @param items             rows of page
+     * @param continuationToken opaque token for the next page | null for the last page
+     * @param <T>               type of rows
+     */
+    public record Page<T>(List<T> items, String continuationToken) {
+        public boolean hasNext() {
+            return continuationToken != null;
+        }
+    }
+
+    /**
+     * Finds one page of the specified String with match condition. Overloaded method {@link #find(String, int, String, RowMapper) find()}
+     *
+     * @param findStr           String to find
+     * @param pageSize          maximum number of rows of page
+     * @param continuationToken token of the previous page | null for the first page
+     * @return {@link Page} of column values
+     */
+    public Page<Object[]> find(String findStr, int pageSize, String continuationToken) {
+        return find(findStr, pageSize, continuationToken, WinSearchResultSet::toArray);
+    }
+
+    /**
+     * Finds one page of the specified String with match condition.
+     * <p>The rows are ordered by the {@link #setPageKey(String) page key}. {@code TOP}, {@code ORDER BY} and the keyset condition
+     * on the key values of the previous page last row are added to SQL query, so the page retrieving does not depend on the page number.
+     * NULL key values are ordered first. The date key is compared with precision of seconds by the query,
+     * so the rows of the same second that are not after the previous page are skipped on the client
+     *
+     * @param findStr           String to find
+     * @param pageSize          maximum number of rows of page
+     * @param continuationToken token of the previous page | null for the first page
+     * @param rowMapper         {@link RowMapper} for one row
+     * @param <T>               type of rows
+     * @return {@link Page} of mapped rows
+     * @throws IllegalStateException    when the connection is not set
+     * @throws IllegalArgumentException when the continuation token is not valid
+     */
+    public <T> Page<T> find(String findStr, int pageSize, String continuationToken, RowMapper<T> rowMapper) {
+        if (connection == null)
+            throw new IllegalStateException("Connection not set");
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        assertFindString(findStr);
+
+        final List<String> keys = Stream.of(pageKey, Core.SystemItemUrl.getName()).distinct().toList();
+        String sql = QueryBuilder.withColumns(project(sqlStatement.formatted(findStr), rowMapper), keys);
+        final List<String> columns = QueryBuilder.selectColumns(sql);
+        final int[] keyIndexes = keys.stream()
+                .mapToInt(key -> indexOfIgnoreCase(columns, key))
+                .toArray();
+        final List<Object> after = continuationToken == null ? null : PageToken.decode(continuationToken, keys.size());
+        if (after != null)
+            sql = QueryBuilder.withCondition(sql, QueryBuilder.buildKeysetCondition(keys, after));
+        //the date literal has precision of seconds: the rows not after the key are skipped, so TOP is raised until the page is full
+        final boolean skip = after != null && after.stream().anyMatch(Date.class::isInstance);
+
+        for (int top = pageSize + 1; ; top = (int) Math.min(Integer.MAX_VALUE, top * 2L)) {
+            try (Statement st = createStatement(connection)) {
+                WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(QueryBuilder.withOrderBy(QueryBuilder.withTop(sql, top), keys));
+                resultStatement = st + "\nRecords retrieved: " + rs.size();
+                List<T> items = new ArrayList<>();
+                List<Object> lastKey = List.of();
+                int retrieved = 0;
+                boolean hasNext = false;
+                while (rs.next()) {
+                    retrieved++;
+                    List<Object> key = new ArrayList<>();
+                    for (int index : keyIndexes) key.add(rs.getObject(index));
+                    if (skip && compareKeys(key, after) <= 0) continue;
+                    if (items.size() == pageSize) {
+                        hasNext = true;
+                        break;
+                    }
+                    items.add(rowMapper.map(rs));
+                    lastKey = key;
+                }
+                if (hasNext || retrieved < top)
+                    return new Page<>(items, hasNext ? PageToken.encode(lastKey) : null);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Compares key values in the order of the {@link QueryBuilder#buildKeysetCondition(List, List) keyset condition}:
+     * NULL is the lowest value, numbers are compared by value, dates by milliseconds, others as strings ignoring case
+     * like the collation of the indexer
+     *
+     * @param a key values
+     * @param b key values of the same columns
+     * @return negative | zero | positive as {@code a} is before, equal to or after {@code b}
+     */
+    static int compareKeys(List<?> a, List<?> b) {
+        for (int i = 0; i < a.size(); i++) {
+            Object x = a.get(i), y = b.get(i);
+            int result;
+            if (x == null || y == null) result = x == null ? (y == null ? 0 : -1) : 1;
+            else if (x instanceof Number n && y instanceof Number m)
+                result = new BigDecimal(n.toString()).compareTo(new BigDecimal(m.toString()));
+            else if (x instanceof Date d && y instanceof Date e) result = Long.compare(d.getTime(), e.getTime());
+            else result = String.CASE_INSENSITIVE_ORDER.compare(x.toString(), y.toString());
+            if (result != 0) return result;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates {@link Flow.Publisher} of the rows found by the specified String with match condition.
+     * <p>Each subscriber gets own connection from the {@link #setDataSource(DataSource) data source} on one of
+     * {@value #PUBLISHER_THREADS} COM threads shared by all publishers, the COM objects of the subscription stay on that thread.
+     * The rows are fetched on subscriber demand and delivered in {@link ForkJoinPool#commonPool()}.
+     * Cancel of subscription or the {@link #setIdleTimeout(Duration) idle timeout} closes the result set, the statement and the connection
+     *
+     * @param findStr   String to find
+     * @param rowMapper {@link RowMapper} for one row, called on the COM thread
+     * @param <T>       type of mapped rows
+     * @return {@link Flow.Publisher} of mapped rows
+     */
+    public <T> Flow.Publisher<T> publisher(String findStr, RowMapper<T> rowMapper) {
+        return publisher(findStr, rowMapper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Overloaded method {@link #publisher(String, RowMapper)} with custom delivery executor
+     *
+     * @param findStr          String to find
+     * @param rowMapper        {@link RowMapper} for one row, called on the COM thread
+     * @param deliveryExecutor executor for subscriber signals
+     * @param <T>              type of mapped rows
+     * @return {@link Flow.Publisher} of mapped rows
+     */
+    public <T> Flow.Publisher<T> publisher(String findStr, RowMapper<T> rowMapper, Executor deliveryExecutor) {
+        final CompiledQuery query = compile();
+        assertFindString(findStr);
+        final String sql = project(query.getSqlStatement().formatted(findStr), rowMapper);
+        final Duration timeout = idleTimeout;
+        return subscriber -> new ResultSetPublisher<>(closeObjects -> {
+            Connection con = query.getDataSource().getConnection();
+            closeObjects.push(con);
+            Statement st = createStatement(con);
+            closeObjects.push(st);
+            return (WinSearchResultSet) st.executeQuery(sql);
+        }, rowMapper, ComThreads.next(), deliveryExecutor, timeout).subscribe(subscriber);
+    }
+
+    /**
+     * Bounded pool of the COM threads of {@link #publisher(String, RowMapper) publishers}. COM objects are bound to
+     * the thread that created them, so the subscription is assigned to one single-thread executor in round-robin order
+     */
+    private static final class ComThreads {
+        private static final ExecutorService[] EXECUTORS = new ExecutorService[PUBLISHER_THREADS];
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        static {
+            for (int i = 0; i < EXECUTORS.length; i++)
+                EXECUTORS[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+                        .name("winsearch-com-" + i)
+                        .daemon(true)
+                        .factory());
+        }
+
+        static Executor next() {
+            return EXECUTORS[Math.floorMod(NEXT.getAndIncrement(), EXECUTORS.length)];
+        }
+    }
+
+    /**
+     * Result of {@link #findChanges(String, RowMapper) delta search}
+     *
+     * @param items     added or changed rows
+     * @param watermark maximum value of the {@link #setWatermarkColumn(String) watermark column} | the previous watermark when there are no rows
+     * @param <T>       type of rows
+     */
+    public record Delta<T>(List<T> items, Date watermark) {
+    }
+
+    /**
+     * Finds rows of the specified String changed or indexed after the previous call with the same String.
+     * The watermark is remembered by the executor per find String. The first call retrieves all rows
+     *
+     * @param findStr   String to find
+     * @param rowMapper {@link RowMapper} for one row
+     * @param <T>       type of rows
+     * @return {@link Delta} of the changed rows
+     * @see #findChanges(String, Date, RowMapper)
+     */
+    public <T> Delta<T> findChanges(String findStr, RowMapper<T> rowMapper) {
+        Delta<T> delta = findChanges(findStr, watermarks.get(findStr), rowMapper);
+        if (delta.watermark() != null)
+            watermarks.merge(findStr, delta.watermark(), (a, b) -> a.after(b) ? a : b);
+        return delta;
+    }
+
+    /**
+     * Finds rows of the specified String changed after the watermark.
+     * <p>The condition {@code <watermark column> >= '<watermark>'} is added to SQL query. The date literal has
+     * precision of seconds, so the rows with the value not after the watermark are skipped on the client
+     *
+     * @param findStr   String to find
+     * @param since     watermark of the previous call | null for all rows
+     * @param rowMapper {@link RowMapper} for one row
+     * @param <T>       type of rows
+     * @return {@link Delta} of the changed rows
+     * @throws IllegalStateException when the connection is not set
+     */
+    public <T> Delta<T> findChanges(String findStr, Date since, RowMapper<T> rowMapper) {
+        if (connection == null)
+            throw new IllegalStateException("Connection not set");
+        assertFindString(findStr);
+        String sql = QueryBuilder.withColumns(project(sqlStatement.formatted(findStr), rowMapper), List.of(watermarkColumn));
+        final int index = indexOfIgnoreCase(QueryBuilder.selectColumns(sql), watermarkColumn);
+        if (since != null)
+            sql = QueryBuilder.withCondition(sql, watermarkColumn + " >= " + QueryBuilder.literal(since));
+
+        try (Statement st = createStatement(connection)) {
+            WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sql);
+            resultStatement = st + "\nRecords retrieved: " + rs.size();
+            List<T> items = new ArrayList<>();
+            Date watermark = since;
+            while (rs.next()) {
+                Date modified = rs.getObject(index) instanceof Date date ? date : null;
+                if (since != null && (modified == null || !modified.after(since))) continue;
+                items.add(rowMapper.map(rs));
+                if (modified != null && (watermark == null || modified.after(watermark))) watermark = modified;
+            }
+            return new Delta<>(items, watermark);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Group of {@link #aggregate(String, List) aggregation}
+     *
+     * @param key      value of the group column | lower limit of the range
+     * @param count    number of items in the group
+     * @param children groups of the next level | empty list for the last level
+     */
+    public record Group(Object key, long count, List<Group> children) {
+    }
+
+    /**
+     * Counts the items of the specified String by groups on the indexer side.
+     * <p>The query {@code GROUP ON <column> [<ranges>] OVER (...)} is built by {@link QueryBuilder#buildGroupOn(List, String)},
+     * only the group rows and the record counts of the last level chapters are transferred
+     *
+     * @param findStr String to find
+     * @param groups  group levels from the outer to the inner
+     * @return tree of {@link Group}
+     * @throws IllegalStateException when the connection is not set
+     */
+    public List<Group> aggregate(String findStr, List<QueryBuilder.GroupOn> groups) {
+        if (connection == null)
+            throw new IllegalStateException("Connection not set");
+        assertFindString(findStr);
+        final String sql = QueryBuilder.buildGroupOn(groups, sqlStatement.formatted(findStr));
+        try (Statement st = createStatement(connection)) {
+            WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(sql);
+            resultStatement = st + "\nGroups retrieved: " + rs.size();
+            return readGroups(rs.unwrap(ADORecordset.class), groups.size());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } catch (COMInvokeException e) {
+            throw new RuntimeException(new WinSearchSQLException(e));
+        }
+    }
+
+    /**
+     * Reads group rows of the hierarchical Recordset level
+     *
+     * @param recordset Recordset of the level
+     * @param levels    number of the levels including this one
+     * @return list of {@link Group}
+     */
+    private static List<Group> readGroups(ADORecordset recordset, int levels) {
+        List<Group> groups = new ArrayList<>();
+        if (recordset.isBOF() && recordset.isEOF()) return groups;
+        recordset.moveFirst();
+        while (!recordset.isEOF()) {
+            ADOFields fields = recordset.getFields();
+            Object key = fields.getItem(0).getValue();
+            ADORecordset chapter = fields.getItem(CHAPTER_COLUMN).getChapter();
+            try {
+                if (levels > 1) {
+                    List<Group> children = readGroups(chapter, levels - 1);
+                    groups.add(new Group(key, children.stream().mapToLong(Group::count).sum(), children));
+                } else groups.add(new Group(key, chapter.getRecordCount(), List.of()));
+            } finally {
+                chapter.close();
+            }
+            recordset.moveNext();
+        }
+        return groups;
+    }
+
+    /**
+     * Found item of {@link #findAll(Collection, RowMapper) batched search}
+     *
+     * @param item  mapped row
+     * @param terms terms matched the item
+     * @param <T>   type of mapped row
+     */
+    public record TermHit<T>(T item, Set<String> terms) {
+    }
+
+    /**
+     * Finds all the terms. Overloaded method {@link #findAll(Collection, RowMapper, int) findAll()} with {@link #BATCH_PARALLELISM} threads
+     *
+     * @param terms     terms to find
+     * @param rowMapper {@link RowMapper} for one row
+     * @param <T>       type of mapped rows
+     * @return list of {@link TermHit} without duplicates
+     */
+    public <T> List<TermHit<T>> findAll(Collection<String> terms, RowMapper<T> rowMapper) {
+        return findAll(terms, rowMapper, BATCH_PARALLELISM);
+    }
+
+    /**
+     * Finds all the terms in a few queries.
+     * <p>The terms are grouped up to {@link #BATCH_MAX_TERMS} terms and {@link #BATCH_MAX_LENGTH} symbols into one
+     * full-text condition ({@link FindStringBuilder#buildAnyOf(Collection, QueryBuilder.ComparisonPredicate) OR-ed}).
+     * The groups are executed concurrently on own connections from the {@link #setDataSource(DataSource) data source}.
+     * <p>The items found by the group of several terms are attributed to the terms by the queries of the halves of the group,
+     * limited to the URLs of the found items, so the match in not selected content is attributed too.
+     * The items found by several groups are merged by {@link Core#SystemItemUrl System.ItemUrl}
+     *
+     * @param terms       terms to find
+     * @param rowMapper   {@link RowMapper} for one row
+     * @param parallelism maximum number of concurrent queries
+     * @param <T>         type of mapped rows
+     * @return list of {@link TermHit} without duplicates, in order of the groups
+     * @throws IllegalStateException when the comparison predicate is not full-text predicate
+     */
+    public <T> List<TermHit<T>> findAll(Collection<String> terms, RowMapper<T> rowMapper, int parallelism) {
+        if (fullTextPredicate != Contains && fullTextPredicate != FreeText)
+            throw new IllegalStateException("Batched search supports only full-text predicates: " + fullTextPredicate);
+        final String url = Core.SystemItemUrl.getName();
+        final String sql = QueryBuilder.withColumns(project(sqlStatement, rowMapper), List.of(url));
+        final int urlIndex = indexOfIgnoreCase(QueryBuilder.selectColumns(sql), url);
+        final CompiledQuery query = new CompiledQuery(sql, fullTextPredicate, compile().getDataSource());
+        final List<List<String>> groups = groupTerms(terms);
+
+        List<List<UrlHit<T>>> results = invokeAll(groups.stream()
+                .<Callable<List<UrlHit<T>>>>map(group -> () -> {
+                    List<UrlHit<T>> found = query.execute(
+                            FindStringBuilder.buildAnyOf(group, fullTextPredicate),
+                            stream -> stream.map(rs -> new UrlHit<>(mapRow(rs, rowMapper), mapRow(rs, r -> r.getObject(urlIndex)), new HashSet<String>())).toList()
+                    ).value();
+                    Map<Object, Set<String>> attributed = new HashMap<>();
+                    for (UrlHit<T> hit : found)
+                        if (hit.url() != null) attributed.put(hit.url(), hit.terms());
+                    attributeTerms(query, urlIndex, group, List.copyOf(attributed.keySet()), attributed);
+                    return found;
+                })
+                .toList(), parallelism);
+
+        Map<Object, TermHit<T>> hits = new LinkedHashMap<>();
+        for (List<UrlHit<T>> result : results) {
+            for (UrlHit<T> hit : result)
+                hits.computeIfAbsent(hit.url(), key -> new TermHit<>(hit.item(), new LinkedHashSet<>()))
+                        .terms().addAll(hit.terms());
+        }
+        return List.copyOf(hits.values());
+    }
+
+    private record UrlHit<T>(T item, Object url, Set<String> terms) {
+    }
+
+    /**
+     * Attributes the found items to the terms of the group. The group is split in halves, each half is queried again
+     * only for the URLs found by the whole group, until the half is one term
+     *
+     * @param query      query of the batched search
+     * @param urlIndex   index of {@link Core#SystemItemUrl System.ItemUrl} column
+     * @param terms      terms, that found the URLs
+     * @param urls       URLs of the found items
+     * @param attributed terms of the found items by URL
+     */
+    private void attributeTerms(CompiledQuery query, int urlIndex, List<String> terms, List<Object> urls, Map<Object, Set<String>> attributed) {
+        if (urls.isEmpty()) return;
+        if (terms.size() == 1) {
+            for (Object url : urls) {
+                Set<String> found = attributed.get(url);
+                if (found != null) found.add(terms.getFirst());
+            }
+            return;
+        }
+        int half = terms.size() / 2;
+        for (List<String> part : List.of(terms.subList(0, half), terms.subList(half, terms.size())))
+            attributeTerms(query, urlIndex, part, findUrls(query, urlIndex, part, urls), attributed);
+    }
+
+    /**
+     * Finds the terms among the items with the URLs. The URLs are added to the query as {@code System.ItemUrl = ... OR ...}
+     * condition by {@link #BATCH_MAX_TERMS} URLs
+     */
+    private List<Object> findUrls(CompiledQuery query, int urlIndex, List<String> terms, List<Object> urls) {
+        List<Object> found = new ArrayList<>();
+        for (int from = 0; from < urls.size(); from += BATCH_MAX_TERMS) {
+            String condition = urls.subList(from, Math.min(urls.size(), from + BATCH_MAX_TERMS)).stream()
+                    .map(url -> Core.SystemItemUrl.getName() + " = " + QueryBuilder.literal(url))
+                    .collect(Collectors.joining(" OR "));
+            //the condition is a part of the format string of the query
+            CompiledQuery narrowed = new CompiledQuery(QueryBuilder.withCondition(query.getSqlStatement(), condition.replace("%", "%%")),
+                    query.getComparisonPredicate(), query.getDataSource());
+            found.addAll(narrowed.execute(FindStringBuilder.buildAnyOf(terms, fullTextPredicate),
+                    stream -> stream.map(rs -> mapRow(rs, r -> r.getObject(urlIndex))).toList()).value());
+        }
+        return found;
+    }
+
+    private List<List<String>> groupTerms(Collection<String> terms) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        int length = 0;
+        for (String term : new LinkedHashSet<>(terms)) {
+            if (term.isBlank()) continue;
+            int termLength = term.length() + 6;
+            if (!group.isEmpty() && (group.size() >= BATCH_MAX_TERMS || length + termLength > BATCH_MAX_LENGTH)) {
+                groups.add(group);
+                group = new ArrayList<>();
+                length = 0;
+            }
+            group.add(term);
+            length += termLength;
+        }
+        if (!group.isEmpty()) groups.add(group);
+        return groups;
+    }
+
+    /**
+     * Finds the specified String in parallel. Overloaded method {@link #findParallel(String, RowMapper, int, List, Comparator) findParallel()} without ordering
+     *
+     * @param findStr   String to find
+     * @param rowMapper {@link RowMapper} for one row
+     * @param shards    maximum number of shards
+     * @param <T>       type of mapped rows
+     * @return list of mapped rows of all shards
+     */
+    public <T> List<T> findParallel(String findStr, RowMapper<T> rowMapper, int shards) {
+        return findParallel(findStr, rowMapper, shards, List.of(), null);
+    }
+
+    /**
+     * Finds the specified String in parallel.
+     * <p>The {@link #getFolders() folders} are split into shards, each shard is executed as a separate query
+     * on own connection from the {@link #setDataSource(DataSource) data source}.
+     * Without ordering the results of shards are concatenated. With ordering each shard query is ordered by
+     * {@code ORDER BY <orderBy>} and the results are k-way merged by the comparator
+     *
+     * @param findStr    String to find
+     * @param rowMapper  {@link RowMapper} for one row
+     * @param shards     maximum number of shards
+     * @param orderBy    ORDER BY terms, for ex.: "System.FileName", "System.Size DESC". Empty list for unordered search
+     * @param comparator comparator of the mapped rows consistent with ORDER BY terms. Ignored for unordered search
+     * @param <T>        type of mapped rows
+     * @return list of mapped rows of all shards
+     * @throws IllegalArgumentException when ordering is specified without comparator
+     */
+    public <T> List<T> findParallel(String findStr, RowMapper<T> rowMapper, int shards, List<String> orderBy, Comparator<? super T> comparator) {
+        if (!orderBy.isEmpty() && comparator == null)
+            throw new IllegalArgumentException("Comparator for ORDER BY " + orderBy + " not set");
+        assertFindString(findStr);
+        final DataSource source = compile().getDataSource();
+        List<List<T>> results = invokeAll(buildShardQueries(shards).stream()
+                .map(sql -> project(sql, rowMapper))
+                .map(sql -> orderBy.isEmpty() ? sql : QueryBuilder.withOrderBy(sql, orderBy))
+                .<Callable<List<T>>>map(sql -> () -> new CompiledQuery(sql, fullTextPredicate, source)
+                        .execute(findStr, stream -> stream.map(rs -> mapRow(rs, rowMapper)).toList())
+                        .value())
+                .toList(), shards);
+        if (orderBy.isEmpty())
+            return results.stream().flatMap(List::stream).toList();
+        return mergeSorted(results, comparator);
+    }
+
+    /**
+     * Finds k best matches of the specified String by {@link Search#SystemSearchRank System.Search.Rank}
+     *
+     * @param findStr   String to find
+     * @param k         maximum number of rows
+     * @param rowMapper {@link RowMapper} for one row
+     * @param <T>       type of mapped rows
+     * @return list of mapped rows from the best rank
+     */
+    public <T> List<T> findTop(String findStr, int k, RowMapper<T> rowMapper) {
+        return findTop(findStr, k, rowMapper, 1, Search.SystemSearchRank.getName(), true);
+    }
+
+    /**
+     * Finds k first rows of the specified String ordered by the column.
+     * <p>Each query gets {@code TOP k} and {@code ORDER BY <orderColumn> [DESC]} clauses. When the folders are split
+     * into {@link #findParallel(String, RowMapper, int, List, Comparator) shards}, the shard results are merged
+     * by the bounded heap {@link TopK}, so not more than k rows per shard are transferred and kept.
+     * The rows with null value are queried separately, only when there are less than k rows with value
+     *
+     * @param findStr     String to find
+     * @param k           maximum number of rows
+     * @param rowMapper   {@link RowMapper} for one row
+     * @param shards      maximum number of shards
+     * @param orderColumn ordering column, is added to SELECT clause if needed. Null values are the last
+     * @param descending  true for descending order
+     * @param <T>         type of mapped rows
+     * @return list of mapped rows in the order
+     */
+    public <T> List<T> findTop(String findStr, int k, RowMapper<T> rowMapper, int shards, String orderColumn, boolean descending) {
+        assertFindString(findStr);
+        final DataSource source = compile().getDataSource();
+        record Ranked<T>(T item, Comparable<Object> key) {
+        }
+        Comparator<Ranked<T>> order = Comparator.comparing(Ranked::key, rankOrder(descending));
+        TopK<Ranked<T>> top = new TopK<>(k, order);
+        invokeAll(buildShardQueries(shards).stream()
+                .map(sql -> QueryBuilder.withColumns(project(sql, rowMapper), List.of(orderColumn)))
+                .<Callable<List<Ranked<T>>>>map(sql -> () -> {
+                    int keyIndex = indexOfIgnoreCase(QueryBuilder.selectColumns(sql), orderColumn);
+                    Function<String, List<Ranked<T>>> execute = condition -> {
+                        String topSql = QueryBuilder.withOrderBy(QueryBuilder.withTop(QueryBuilder.withCondition(sql, condition), k),
+                                List.of(orderColumn + (descending ? " DESC" : "")));
+                        return new CompiledQuery(topSql, fullTextPredicate, source)
+                                .execute(findStr, stream -> stream
+                                        .map(rs -> new Ranked<>(mapRow(rs, rowMapper), toComparable(mapRow(rs, r -> r.getObject(keyIndex)))))
+                                        .toList())
+                                .value();
+                    };
+                    //NULL is the lowest value of the indexer ordering, the rows with NULL are retrieved only to fill k rows
+                    List<Ranked<T>> ranked = new ArrayList<>(execute.apply(orderColumn + " IS NOT NULL"));
+                    if (ranked.size() < k) ranked.addAll(execute.apply(orderColumn + " IS NULL"));
+                    return ranked;
+                })
+                .toList(), shards)
+                .forEach(top::offerAll);
+        return top.toList().stream().map(Ranked::item).toList();
+    }
+
+    /**
+     * Ranks the keys of {@link #findTop(String, int, RowMapper, int, String, boolean) top search}: the greatest key is the best one,
+     * null is the lowest key in both directions
+     *
+     * @param descending true for descending order
+     * @return comparator of the keys
+     */
+    static Comparator<Comparable<Object>> rankOrder(boolean descending) {
+        Comparator<Comparable<Object>> natural = Comparator.naturalOrder();
+        return Comparator.nullsFirst(descending ? natural : natural.reversed());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> toComparable(Object value) {
+        return value instanceof Comparable<?> comparable ? (Comparable<Object>) comparable : null;
+    }
+
+    /**
+     * Builds one query per shard of the folders. Folders are distributed between shards in round-robin order
+     *
+     * @param shards maximum number of shards
+     * @return list of SQL queries | list of the current SQL statement, when there are less than two folders
+     */
+    private List<String> buildShardQueries(int shards) {
+        if (folders.size() < 2 || shards < 2) return List.of(sqlStatement);
+        List<Set<QueryBuilder.Folder>> parts = new ArrayList<>();
+        List<QueryBuilder.Folder> sorted = folders.stream()
+                .sorted(Comparator.comparing(QueryBuilder.Folder::getPath))
+                .toList();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i < shards) parts.add(new HashSet<>());
+            parts.get(i % shards).add(sorted.get(i));
+        }
+        return parts.stream()
+                .map(part -> QueryBuilder.build(propertyNames, part, fullTextPredicate, fulltextColumns))
+                .toList();
+    }
+
+    /**
+     * Narrows SELECT list of the query to the columns declared by {@link Projection}
+     */
+    private static String project(String sql, RowMapper<?> rowMapper) {
+        return rowMapper instanceof Projection<?> projection
+                ? QueryBuilder.withSelectColumns(sql, projection.columns())
+                : sql;
+    }
+
+    private static <T> T mapRow(WinSearchResultSet rs, RowMapper<T> rowMapper) {
+        try {
+            return rowMapper.map(rs);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * K-way merge of the sorted lists
+     */
+    private static <T> List<T> mergeSorted(List<List<T>> lists, Comparator<? super T> comparator) {
+        record Head<T>(T value, Iterator<T> iterator) {
+        }
+        PriorityQueue<Head<T>> queue = new PriorityQueue<>(Math.max(1, lists.size()),
+                (a, b) -> comparator.compare(a.value(), b.value()));
+        for (List<T> list : lists) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) queue.add(new Head<>(iterator.next(), iterator));
+        }
+        List<T> merged = new ArrayList<>(lists.stream().mapToInt(List::size).sum());
+        while (!queue.isEmpty()) {
+            Head<T> head = queue.poll();
+            merged.add(head.value());
+            if (head.iterator().hasNext()) queue.add(new Head<>(head.iterator().next(), head.iterator()));
+        }
+        return merged;
+    }
+
+    /**
+     * Executes the tasks concurrently
+     *
+     * @param tasks       tasks
+     * @param parallelism maximum number of threads
+     * @return results in order of the tasks
+     */
+    private static <V> List<V> invokeAll(List<Callable<V>> tasks, int parallelism) {
+        if (tasks.isEmpty()) return List.of();
+        List<Future<V>> futures;
+        try (ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())))) {
+            futures = service.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        List<V> results = new ArrayList<>();
+        for (Future<V> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static int indexOfIgnoreCase(List<String> list, String str) {
+        for (int i = 0; i < list.size(); i++)
+            if (list.get(i).equalsIgnoreCase(str)) return i;
+        return -1;
+    }
+
+    private Statement createStatement(Connection con) throws SQLException {
+        Statement st = con.createStatement();
+        st.setQueryTimeout(queryTimeout);
+        return st;
+    }
+
+    private DataSource dataSourceOrDefault() {
+        return dataSource == null ? new WinSearchDataSource() : dataSource;
+    }
+
     private void assertFindString(String findStr) {
-        if (fullTextPredicate == Contains && findStr.contains(" ") && !FindStringBuilder.isQuotationEnclosed(findStr))
-            throw new IllegalArgumentException("Find string contains the <space> symbols. For use with CONTAINS predicate the string should be enclosed in quotation marks");
+        CompiledQuery.assertFindString(fullTextPredicate, findStr);
     }
 
     /**
@@ -275,6 +1188,60 @@ public class QueryExecutor {
             return this;
         }
 
+        /**
+         * Sets the ordering key column of page search
+         * @param pageKey {@link WinProperty} column, default {@link Core#SystemItemUrl System.ItemUrl}
+         * @return {@link QueryExecutorBuilder} object
+         * @see QueryExecutor#find(String, int, String, RowMapper)
+         */
+        public QueryExecutorBuilder pageKey(WinProperty pageKey) {
+            executor.setPageKey(pageKey.getName());
+            return this;
+        }
+
+        /**
+         * Sets the date column of delta search
+         * @param watermarkColumn {@link WinProperty} date column, default {@link Search#SystemSearchGatherTime System.Search.GatherTime}
+         * @return {@link QueryExecutorBuilder} object
+         * @see QueryExecutor#findChanges(String, RowMapper)
+         */
+        public QueryExecutorBuilder watermarkColumn(WinProperty watermarkColumn) {
+            executor.setWatermarkColumn(watermarkColumn.getName());
+            return this;
+        }
+
+        /**
+         * Sets the time budget of the queries
+         * @param seconds timeout, 0 (default) for no limit
+         * @return {@link QueryExecutorBuilder} object
+         * @see QueryExecutor#setQueryTimeout(int)
+         */
+        public QueryExecutorBuilder queryTimeout(int seconds) {
+            executor.setQueryTimeout(seconds);
+            return this;
+        }
+
+        /**
+         * Sets the maximum time without demand of the publisher subscriptions
+         * @param idleTimeout timeout, default 1 minute. {@link Duration#ZERO} for no limit
+         * @return {@link QueryExecutorBuilder} object
+         * @see QueryExecutor#setIdleTimeout(Duration)
+         */
+        public QueryExecutorBuilder idleTimeout(Duration idleTimeout) {
+            executor.setIdleTimeout(idleTimeout);
+            return this;
+        }
+
+        /**
+         * Sets data source for {@link #compile() compiled} queries
+         * @param dataSource {@link DataSource} object, default {@link WinSearchDataSource}
+         * @return {@link QueryExecutorBuilder} object
+         */
+        public QueryExecutorBuilder dataSource(DataSource dataSource) {
+            executor.setDataSource(dataSource);
+            return this;
+        }
+
         /**
          * Final method for build. Calls {@link QueryExecutor#buildQuery()}
          * @return ready {@link QueryExecutor} object
@@ -284,6 +1251,14 @@ public class QueryExecutor {
             return executor;
         }
 
+        /**
+         * Final method for build of the immutable thread-safe query. Calls {@link QueryExecutor#buildQuery()}
+         * @return ready {@link CompiledQuery} object
+         */
+        public CompiledQuery compile() {
+            return build().compile();
+        }
+
         /**
          * Builds empty QueryExecutor object. All settings should be done manually
          *
@@ -0,0 +1,194 @@
+package com.jisj.winsearch;
+
+import com.jisj.winsearch.properties.WinProperty;
+
+import java.util.*;
+
+/**
+ * Immutable typed query to MS Windows Index Search, compiled once and reusable with bound parameters.
+ * <p>The filters, the ordering and the row limit are pushed to the indexer, so only the matching rows are transferred:
+ * <pre>{@code SELECT [TOP <n>] <columns> FROM SystemIndex WHERE (<scopes>) AND (<condition>) [ORDER BY <columns>]}</pre>
+ * <p>Usage:
+ * <pre>{@code      SelectQuery query = SelectQuery.builder()
+ *              .select(Core.SystemFileName, Core.SystemSize)
+ *              .folders(Folder.of(Path, DepthPredicate)...) // optional
+ *              .where(Condition.gt(Core.SystemSize, Condition.param("minSize"))) // optional
+ *              .orderBy(Core.SystemSize, true) // optional
+ *              .top(100) // optional
+ *              .build();
+ *      String sql = query.bind(Map.of("minSize", 1024));
+ *      }
+ * </pre>
+ *
+ * @see Condition
+ * @see QueryExecutor#find(SelectQuery, Map, com.jisj.winsearch.sql.RowMapper)
+ */
+public final class SelectQuery {
+    private final List<Object> template;
+    private final Set<String> parameterNames;
+
+    private SelectQuery(List<Object> template) {
+        this.template = template;
+        Set<String> names = new LinkedHashSet<>();
+        for (Object part : template)
+            if (part instanceof Condition.Param param) names.add(param.name());
+        this.parameterNames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Names of the parameters of the query
+     *
+     * @return set of names in order of appearance
+     */
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Binds the parameter values to the query. The values are escaped by {@link QueryBuilder#literal(Object)}
+     *
+     * @param parameters values of all the {@link #getParameterNames() parameters}
+     * @return SQL query
+     * @throws IllegalArgumentException when a parameter value is not set or null
+     */
+    public String bind(Map<String, ?> parameters) {
+        StringBuilder builder = new StringBuilder();
+        for (Object part : template) {
+            if (part instanceof Condition.Param param) {
+                Object value = parameters.get(param.name());
+                if (value == null) throw new IllegalArgumentException("Parameter value not set: " + param.name());
+                builder.append(QueryBuilder.literal(value));
+            } else builder.append(part);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns SQL query without parameters
+     *
+     * @return SQL query
+     * @throws IllegalStateException when the query has parameters
+     */
+    public String getSql() {
+        if (!parameterNames.isEmpty())
+            throw new IllegalStateException("Query has parameters: " + parameterNames);
+        return bind(Map.of());
+    }
+
+    /**
+     * Creates builder
+     *
+     * @return {@link SelectQueryBuilder} object
+     */
+    public static SelectQueryBuilder builder() {
+        return new SelectQueryBuilder();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        template.forEach(builder::append);
+        return "SelectQuery{" +
+                "sql='\n" + builder + '\'' +
+                '}';
+    }
+
+    /**
+     * Builder of {@link SelectQuery}
+     */
+    public static class SelectQueryBuilder {
+        private final List<String> columns = new ArrayList<>();
+        private final Set<QueryBuilder.Folder> folders = new HashSet<>();
+        private final List<String> orderBy = new ArrayList<>();
+        private Condition condition;
+        private int top = 0;
+
+        private SelectQueryBuilder() {
+        }
+
+        /**
+         * Adds columns of SELECT clause. Duplicate columns are ignored
+         *
+         * @param properties columns
+         * @return {@link SelectQueryBuilder} object
+         */
+        public SelectQueryBuilder select(WinProperty... properties) {
+            for (WinProperty property : properties)
+                if (!columns.contains(property.getName())) columns.add(property.getName());
+            return this;
+        }
+
+        /**
+         * Adds search scopes
+         *
+         * @param folders {@link QueryBuilder.Folder folders}
+         * @return {@link SelectQueryBuilder} object
+         */
+        public SelectQueryBuilder folders(QueryBuilder.Folder... folders) {
+            this.folders.addAll(Arrays.asList(folders));
+            return this;
+        }
+
+        /**
+         * Sets the search condition. The next call adds the condition with AND operator
+         *
+         * @param condition {@link Condition}
+         * @return {@link SelectQueryBuilder} object
+         */
+        public SelectQueryBuilder where(Condition condition) {
+            this.condition = this.condition == null ? condition : Condition.and(this.condition, condition);
+            return this;
+        }
+
+        /**
+         * Adds ordering column
+         *
+         * @param property   column
+         * @param descending true for descending order
+         * @return {@link SelectQueryBuilder} object
+         */
+        public SelectQueryBuilder orderBy(WinProperty property, boolean descending) {
+            orderBy.add(property.getName() + (descending ? " DESC" : ""));
+            return this;
+        }
+
+        /**
+         * Sets TOP clause
+         *
+         * @param top maximum number of rows
+         * @return {@link SelectQueryBuilder} object
+         */
+        public SelectQueryBuilder top(int top) {
+            if (top <= 0) throw new IllegalArgumentException("TOP value must be positive: " + top);
+            this.top = top;
+            return this;
+        }
+
+        /**
+         * Compiles the query
+         *
+         * @return {@link SelectQuery} object
+         * @throws IllegalArgumentException when no columns are selected
+         */
+        public SelectQuery build() {
+            String head = QueryBuilder.buildScope(columns, folders);
+            if (top > 0) head = QueryBuilder.withTop(head, top);
+            List<Object> template = new ArrayList<>();
+            StringBuilder chunk = new StringBuilder(head);
+            if (condition != null) {
+                chunk.append(QueryBuilder.compactFolders(folders).isEmpty() ? "\nWHERE (" : " AND (");
+                for (Object part : condition.parts()) {
+                    if (part instanceof Condition.Param) {
+                        template.add(chunk.toString());
+                        template.add(part);
+                        chunk.setLength(0);
+                    } else chunk.append(part);
+                }
+                chunk.append(")");
+            }
+            if (!orderBy.isEmpty()) chunk.append("\nORDER BY ").append(String.join(", ", orderBy));
+            template.add(chunk.toString());
+            return new SelectQuery(List.copyOf(template));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.jisj.winsearch;
+
+import com.jisj.winsearch.properties.Core;
+import com.jisj.winsearch.sql.WinSearchConnection;
+import com.jisj.winsearch.utils.PrefixIndex;
+
+import java.util.*;
+
+/**
+ * Type-ahead of file names in the folders of MS Windows Index Search.
+ * <p>The file names and paths of all the items in the folders are loaded once to the memory {@link PrefixIndex},
+ * so the prefix search does not send queries to the indexer. The index is refreshed by the
+ * {@link QueryExecutor#findChanges(String, com.jisj.winsearch.sql.RowMapper) delta search}: only the items modified
+ * after the previous refresh are retrieved and merged.
+ * <p>The delta search cannot see the deleted items, call {@link #reload()} for full reloading.
+ * <p>The search is thread-safe and lock-free, the refresh is synchronized and replaces the index atomically
+ * <p>Usage:
+ * <pre>{@code      TypeAhead typeAhead = new TypeAhead(WinSearchConnection, Folder.of(Path, DepthPredicate)...);
+ *      typeAhead.refresh();
+ *      List<TypeAhead.Item> items = typeAhead.find("rep", 10);
+ *      }
+ * </pre>
+ */
+public class TypeAhead {
+    private static final String ALL_ITEMS = "";
+    private final QueryExecutor executor;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<Item> items = new ArrayList<>();
+    private volatile Snapshot snapshot = new Snapshot(PrefixIndex.empty(), new Item[0]);
+
+    /**
+     * Item of type-ahead
+     *
+     * @param fileName {@link Core#SystemFileName System.FileName}
+     * @param path     {@link Core#SystemItemPathDisplay System.ItemPathDisplay}
+     */
+    public record Item(String fileName, String path) {
+    }
+
+    private record Snapshot(PrefixIndex index, Item[] items) {
+    }
+
+    /**
+     * Creates type-ahead. The index is empty until the first {@link #refresh()}
+     *
+     * @param connection {@link WinSearchConnection} for refresh
+     * @param folders    folders of the items. No folders for the whole index
+     */
+    public TypeAhead(WinSearchConnection connection, QueryBuilder.Folder... folders) {
+        executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(folders)
+                .connection(connection)
+                .build();
+        executor.setSqlStatement(QueryBuilder.buildScope(executor.getProperties(), executor.getFolders()));
+    }
+
+    /**
+     * Loads the items added or modified after the previous refresh and merges them to the index.
+     * The first call loads all the items
+     *
+     * @return number of new items in the index
+     */
+    public synchronized int refresh() {
+        List<PrefixIndex.Entry> added = new ArrayList<>();
+        for (Item item : executor.findChanges(ALL_ITEMS, rs -> new Item(
+                Objects.toString(rs.getObject(0), ""),
+                Objects.toString(rs.getObject(1), ""))).items()) {
+            if (item.path().isEmpty() || ids.containsKey(item.path())) continue;
+            ids.put(item.path(), items.size());
+            added.add(new PrefixIndex.Entry(item.fileName(), items.size()));
+            items.add(item);
+        }
+        if (!added.isEmpty())
+            snapshot = new Snapshot(snapshot.index().merge(added), items.toArray(Item[]::new));
+        return added.size();
+    }
+
+    /**
+     * Clears the index and loads all the items again
+     *
+     * @return number of items in the index
+     */
+    public synchronized int reload() {
+        executor.resetWatermarks();
+        ids.clear();
+        items.clear();
+        snapshot = new Snapshot(PrefixIndex.empty(), new Item[0]);
+        return refresh();
+    }
+
+    /**
+     * Finds the items with file name starting with the prefix, case-insensitive
+     *
+     * @param prefix prefix of file name
+     * @param limit  maximum number of items
+     * @return items in the order of file names
+     */
+    public List<Item> find(String prefix, int limit) {
+        Snapshot current = snapshot;
+        int[] found = current.index().find(prefix, limit);
+        List<Item> result = new ArrayList<>(found.length);
+        for (int id : found) result.add(current.items()[id]);
+        return result;
+    }
+
+    /**
+     * Number of items in the index
+     *
+     * @return number of items
+     */
+    public int size() {
+        return snapshot.index().size();
+    }
+}
@@ -62,6 +62,22 @@ interface _Connection {
     @ComProperty(name = "Provider")
     String getProvider();
 
+    /**
+     * Indicates how long to wait while executing a command before terminating the attempt and generating an error
+     *
+     * @return timeout in seconds, 0 for indefinite wait
+     */
+    @ComProperty(name = "CommandTimeout")
+    int getCommandTimeout();
+
+    /**
+     * Sets how long to wait while executing a command before terminating the attempt and generating an error
+     *
+     * @param seconds timeout, default 30 s. 0 for indefinite wait
+     */
+    @ComProperty(name = "CommandTimeout")
+    void setCommandTimeout(int seconds);
+
     /**
      * <p>
      * memberId(5)</p>
@@ -0,0 +1,41 @@
+package com.jisj.winsearch.ado;
+
+import com.sun.jna.platform.win32.COM.util.annotation.ComInterface;
+import com.sun.jna.platform.win32.COM.util.annotation.ComProperty;
+
+/**
+ * Represents a column of data with a common data type
+ * <a href="https://learn.microsoft.com/en-us/previous-versions/sql/ado/reference/ado-api/field-object?view=sql-server-ver15">MS Learn</a>
+ * <p>
+ * Mapped proxy interface Field (iid = {00001569-0000-0010-8000-00AA006D2EA4})
+ */
+@ComInterface(iid = "{00001569-0000-0010-8000-00AA006D2EA4}")
+public interface ADOField {
+
+    @ComProperty(name = "Name")
+    String getName();
+
+    /**
+     * Value of the field in the current record
+     *
+     * @return converted value
+     */
+    @ComProperty(name = "Value")
+    Object getValue();
+
+    /**
+     * Value of the chapter field in the current record of hierarchical Recordset
+     *
+     * @return child {@link ADORecordset} of the chapter
+     */
+    @ComProperty(name = "Value")
+    ADORecordset getChapter();
+
+    /**
+     * Data type of the field
+     *
+     * @return DataTypeEnum value
+     */
+    @ComProperty(name = "Type")
+    int getType();
+}
@@ -0,0 +1,31 @@
+package com.jisj.winsearch.ado;
+
+import com.sun.jna.platform.win32.COM.util.annotation.ComInterface;
+import com.sun.jna.platform.win32.COM.util.annotation.ComProperty;
+
+/**
+ * Contains all the Field objects of a Recordset object
+ * <a href="https://learn.microsoft.com/en-us/previous-versions/sql/ado/reference/ado-api/fields-collection-ado?view=sql-server-ver15">MS Learn</a>
+ * <p>
+ * Mapped proxy interface Fields (iid = {00001564-0000-0010-8000-00AA006D2EA4})
+ */
+@ComInterface(iid = "{00001564-0000-0010-8000-00AA006D2EA4}")
+public interface ADOFields {
+
+    /**
+     * Number of fields in the collection
+     *
+     * @return count of fields
+     */
+    @ComProperty(name = "Count")
+    int getCount();
+
+    /**
+     * Returns field of the collection
+     *
+     * @param index {@link Integer} ordinal position or {@link String} name of the field
+     * @return {@link ADOField}
+     */
+    @ComProperty(name = "Item")
+    ADOField getItem(Object index);
+}
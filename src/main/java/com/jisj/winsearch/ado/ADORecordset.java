@@ -20,6 +20,14 @@ public interface ADORecordset extends _Recordset {
      * Default value for unspecified values
      */
     int adCmdUnspecified = -1;
+    /**
+     * Source is the text of a command, value of CommandTypeEnum
+     */
+    int adCmdText = 0x1;
+    /**
+     * The command executes asynchronously, value of ExecuteOptionEnum
+     */
+    int adAsyncExecute = 0x10;
 }
 
 /**
@@ -54,6 +62,14 @@ interface _Recordset {
     @ComProperty(name = "CacheSize")
     void setCacheSize(long size);
 
+    /**
+     * Sets the maximum number of records to return from a query. Should be set before the Recordset is opened
+     *
+     * @param maxRecords maximum number of records, 0 (default) for all records
+     */
+    @ComProperty(name = "MaxRecords")
+    void setMaxRecords(int maxRecords);
+
     @ComProperty(name = "CursorType")
     long cursorType();
 
@@ -85,6 +101,14 @@ interface _Recordset {
     @ComProperty(name = "Source")
     String getSource();
 
+    /**
+     * Collection of the fields of the Recordset
+     *
+     * @return {@link ADOFields}
+     */
+    @ComProperty(name = "Fields")
+    ADOFields getFields();
+
     /**
      * Returns true if the current record position is before the first record and false if the current record position is on or after the first record.
      */
@@ -130,6 +154,12 @@ interface _Recordset {
     @ComMethod(name = "Close")
     void close();
 
+    /**
+     * Cancels execution of a pending, asynchronous {@link #open(Object, Object, CursorTypeEnum, LockTypeEnum, int) Open}
+     */
+    @ComMethod(name = "Cancel")
+    void cancel();
+
     @ComMethod(name = "Move")
     void move(long numRecords);
 
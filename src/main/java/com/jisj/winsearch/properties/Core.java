@@ -9,78 +9,98 @@ public enum Core implements WinProperty{
     /**
      * Core - <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-dateaccessed">System.DateAccessed</a> Indicates the last time the item was accessed
      */
-    SystemDateAccessed("System.DateAccessed"),
+    SystemDateAccessed("System.DateAccessed", PropertyType.FILETIME),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-datecreated">System.DateCreated</a> The date and time the item was created
+     */
+    SystemDateCreated("System.DateCreated", PropertyType.FILETIME),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-datemodified">System.DateModified</a> The date and time of the last write to the item
+     */
+    SystemDateModified("System.DateModified", PropertyType.FILETIME),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-fileattributes">System.FileAttributes</a> The attributes of the item
      */
-    SystemFileAttributes("System.FileAttributes"),
+    SystemFileAttributes("System.FileAttributes", PropertyType.UINT32),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-fileextension">System.FileExtension</a> Identifies the file extension of the file-based item, including the leading period
      */
-    SystemFileExtension("System.FileExtension"),
+    SystemFileExtension("System.FileExtension", PropertyType.STRING, true),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-isread">System.IsRead</a> Identifies whether the item has been read
      */
-    SystemIsRead("System.IsRead"),
+    SystemIsRead("System.IsRead", PropertyType.BOOLEAN),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-filename">System.FileName</a> The file name, including its extension.
      */
-    SystemFileName("System.FileName"),
+    SystemFileName("System.FileName", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-foldernamedisplay">System.FolderNameDisplay</a> This property is similar to {@link #SystemItemNameDisplay System.ItemNameDisplay} except it is only set for folders, for files it will be empty.
      * This is useful to segregate files and folders by using this as the first sort key
      */
-    SystemFolderNameDisplay("System.FolderNameDisplay"),
+    SystemFolderNameDisplay("System.FolderNameDisplay", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemauthors">System.ItemAuthors</a> Generic list of authors associated with an item. For example, the artist name for a music track is the item author
      */
-    SystemItemAuthors("System.ItemAuthors"),
+    SystemItemAuthors("System.ItemAuthors", PropertyType.STRING_VECTOR),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemdate">System.ItemDate</a> The primary date of interest for an item
      */
-    SystemItemDate("System.ItemDate"),
+    SystemItemDate("System.ItemDate", PropertyType.FILETIME),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemfoldernamedisplay">System.ItemFolderNameDisplay</a> The user-friendly display name of an item's parent folder. This is derived from {@link #SystemItemFolderPathDisplay System.ItemFolderPathDisplay}
      */
-    SystemItemFolderNameDisplay("System.ItemFolderNameDisplay"),
+    SystemItemFolderNameDisplay("System.ItemFolderNameDisplay", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemfolderpathdisplay">System.ItemFolderPathDisplay</a> The user-friendly display path of an item's parent folder
      */
-    SystemItemFolderPathDisplay("System.ItemFolderPathDisplay"),
+    SystemItemFolderPathDisplay("System.ItemFolderPathDisplay", PropertyType.STRING, true),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemname">System.ItemName</a> The base name of the System.ItemNameDisplay property
      */
-    SystemItemName("System.ItemName"),
+    SystemItemName("System.ItemName", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemnamedisplay">System.ItemNameDisplay</a> The display name in "most complete" form. It is the unique representation of the item name most appropriate for end users
      */
-    SystemItemNameDisplay("System.ItemNameDisplay"),
+    SystemItemNameDisplay("System.ItemNameDisplay", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemnamedisplaywithoutextension">System.ItemNameDisplayWithoutExtension</a> This is similar to {@link #SystemItemNameDisplay System.ItemNameDisplay} except that it never includes a file extension
      */
-    SystemItemNameDisplayWithoutExtension("System.ItemNameDisplayWithoutExtension"),
+    SystemItemNameDisplayWithoutExtension("System.ItemNameDisplayWithoutExtension", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itempathdisplay">System.ItemPathDisplay</a> The user-friendly display path to the item
      */
-    SystemItemPathDisplay("System.ItemPathDisplay"),
+    SystemItemPathDisplay("System.ItemPathDisplay", PropertyType.STRING),
     /**
      * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-itemurl">System.ItemUrl</a> Represents a well-formed URL that points to the item
      */
-    SystemItemUrl("System.ItemUrl"),
-    SystemIsAttachment("System.IsAttachment"),
-    SystemIsDeleted("System.IsDeleted"),
-    SystemItemTypeText("System.ItemTypeText"),
-    SystemKind("System.Kind"),
-    SystemKindText("System.KindText"),
-    SystemFlagStatusText("System.FlagStatusText"),
-    SystemSearchContainerHash("System.Search.ContainerHash"),
-    SystemSearchStore("System.Search.Store"),
-    SystemKeywords("System.Keywords");
+    SystemItemUrl("System.ItemUrl", PropertyType.STRING),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-size">System.Size</a> The system-provided file system size of the item, in bytes
+     */
+    SystemSize("System.Size", PropertyType.UINT64),
+    SystemIsAttachment("System.IsAttachment", PropertyType.BOOLEAN),
+    SystemIsDeleted("System.IsDeleted", PropertyType.BOOLEAN),
+    SystemItemTypeText("System.ItemTypeText", PropertyType.STRING, true),
+    SystemKind("System.Kind", PropertyType.STRING_VECTOR),
+    SystemKindText("System.KindText", PropertyType.STRING, true),
+    SystemFlagStatusText("System.FlagStatusText", PropertyType.STRING),
+    SystemSearchContainerHash("System.Search.ContainerHash", PropertyType.STRING),
+    SystemSearchStore("System.Search.Store", PropertyType.STRING),
+    SystemKeywords("System.Keywords", PropertyType.STRING_VECTOR);
 
     private final String name;
+    private final PropertyType type;
+    private final boolean lowCardinality;
+
+    Core(String name, PropertyType type) {
+        this(name, type, false);
+    }
 
-    Core(String name) {
+    Core(String name, PropertyType type, boolean lowCardinality) {
         this.name = name;
+        this.type = type;
+        this.lowCardinality = lowCardinality;
     }
 
     /**
@@ -93,4 +113,23 @@ public enum Core implements WinProperty{
         return name;
     }
 
+    /**
+     * Returns declared type of property
+     *
+     * @return {@link PropertyType}
+     */
+    @Override
+    public PropertyType getType() {
+        return type;
+    }
+
+    /**
+     * Returns true for the string property with few distinct values
+     *
+     * @return true if the values are repeated
+     */
+    @Override
+    public boolean isLowCardinality() {
+        return lowCardinality;
+    }
 }
@@ -0,0 +1,52 @@
+package com.jisj.winsearch.properties;
+
+/**
+ * Enum of <a href="https://learn.microsoft.com/en-us/windows/win32/properties/image-bumper">Windows Image properties</a>
+ * @see <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props">Windows Property System</a>
+ */
+public enum Image implements WinProperty {
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-image-bitdepth">System.Image.BitDepth</a> Indicates how many bits are used in each pixel of the image
+     */
+    SystemImageBitDepth("System.Image.BitDepth", PropertyType.UINT32),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-image-dimensions">System.Image.Dimensions</a> Indicates the dimensions of the image, for ex. 800 x 600
+     */
+    SystemImageDimensions("System.Image.Dimensions", PropertyType.STRING),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-image-horizontalsize">System.Image.HorizontalSize</a> The horizontal size of the image, in pixels
+     */
+    SystemImageHorizontalSize("System.Image.HorizontalSize", PropertyType.UINT32),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-image-verticalsize">System.Image.VerticalSize</a> The vertical size of the image, in pixels
+     */
+    SystemImageVerticalSize("System.Image.VerticalSize", PropertyType.UINT32);
+
+    private final String name;
+    private final PropertyType type;
+
+    Image(String name, PropertyType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Returns string name of property
+     *
+     * @return {@link String}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns declared type of property
+     *
+     * @return {@link PropertyType}
+     */
+    @Override
+    public PropertyType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,71 @@
+package com.jisj.winsearch.properties;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog of known {@link WinProperty properties} by canonical name, compared case-insensitive
+ * <p>{@link Core}, {@link Search} and {@link Image} properties are registered by default, other property groups
+ * can be added by {@link #register(WinProperty...)}. The result set looks up the declared {@link PropertyType types}
+ * and the {@link WinProperty#isLowCardinality() cardinality}
+ * of the selected columns here to choose the column decoders once per query
+ */
+public final class PropertyCatalog {
+    private static final Map<String, WinProperty> PROPERTIES = new ConcurrentHashMap<>();
+
+    static {
+        register(Core.values());
+        register(Search.values());
+        register(Image.values());
+    }
+
+    private PropertyCatalog() {
+    }
+
+    /**
+     * Registers the properties. A property with the same name replaces the registered one
+     *
+     * @param properties properties, for ex. values of the property group enum
+     */
+    public static void register(WinProperty... properties) {
+        for (WinProperty property : properties) PROPERTIES.put(key(property.getName()), property);
+    }
+
+    /**
+     * Finds the property by canonical name
+     *
+     * @param name name like System.ItemName
+     * @return {@link Optional} of {@link WinProperty} | empty if the property is not registered
+     */
+    public static Optional<WinProperty> find(String name) {
+        return Optional.ofNullable(PROPERTIES.get(key(name)));
+    }
+
+    /**
+     * Returns declared type of the property
+     *
+     * @param name name like System.ItemName
+     * @return {@link PropertyType} | {@link PropertyType#ANY} if the property is not registered
+     */
+    public static PropertyType typeOf(String name) {
+        WinProperty property = PROPERTIES.get(key(name));
+        return property == null ? PropertyType.ANY : property.getType();
+    }
+
+    /**
+     * Returns true for the registered {@link WinProperty#isLowCardinality() low-cardinality} property
+     *
+     * @param name name like System.ItemTypeText
+     * @return true if the values are repeated | false if the property is not registered
+     */
+    public static boolean isLowCardinality(String name) {
+        WinProperty property = PROPERTIES.get(key(name));
+        return property != null && property.isLowCardinality();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
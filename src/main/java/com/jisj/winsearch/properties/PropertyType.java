@@ -0,0 +1,88 @@
+package com.jisj.winsearch.properties;
+
+import com.sun.jna.platform.win32.Variant;
+
+/**
+ * Declared types of <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props">Windows properties</a>
+ * <p>The type is described by the VARTYPE of the property schema, the multi-valued flag and the Java type of the decoded value.
+ * The Windows Search OLE DB provider converts some types on the wire, for ex. VT_LPWSTR to VT_BSTR, VT_FILETIME to VT_DATE
+ */
+public enum PropertyType {
+    /**
+     * VT_LPWSTR, decoded to {@link String}
+     */
+    STRING(Variant.VT_LPWSTR, false, String.class),
+    /**
+     * VT_VECTOR | VT_LPWSTR, decoded to {@link String}[]
+     */
+    STRING_VECTOR(Variant.VT_VECTOR | Variant.VT_LPWSTR, true, String[].class),
+    /**
+     * VT_BOOL, decoded to {@link Boolean}
+     */
+    BOOLEAN(Variant.VT_BOOL, false, Boolean.class),
+    /**
+     * VT_I4, decoded to {@link Integer}
+     */
+    INT32(Variant.VT_I4, false, Integer.class),
+    /**
+     * VT_UI4, decoded to {@link Integer}
+     */
+    UINT32(Variant.VT_UI4, false, Integer.class),
+    /**
+     * VT_I8, decoded to {@link Long}
+     */
+    INT64(Variant.VT_I8, false, Long.class),
+    /**
+     * VT_UI8, decoded to {@link Long}
+     */
+    UINT64(Variant.VT_UI8, false, Long.class),
+    /**
+     * VT_R8, decoded to {@link Double}
+     */
+    DOUBLE(Variant.VT_R8, false, Double.class),
+    /**
+     * VT_FILETIME, decoded to {@link java.util.Date}
+     */
+    FILETIME(Variant.VT_FILETIME, false, java.util.Date.class),
+    /**
+     * Unknown type, the value is decoded by its VARTYPE
+     */
+    ANY(Variant.VT_VARIANT, false, Object.class);
+
+    private final int varType;
+    private final boolean multiValued;
+    private final Class<?> javaType;
+
+    PropertyType(int varType, boolean multiValued, Class<?> javaType) {
+        this.varType = varType;
+        this.multiValued = multiValued;
+        this.javaType = javaType;
+    }
+
+    /**
+     * Returns VARTYPE of the property schema
+     *
+     * @return VARTYPE
+     */
+    public int getVarType() {
+        return varType;
+    }
+
+    /**
+     * Returns true for the multi-valued property, for ex. {@link Core#SystemKind System.Kind}
+     *
+     * @return true if the value is a vector
+     */
+    public boolean isMultiValued() {
+        return multiValued;
+    }
+
+    /**
+     * Returns Java type of the decoded value
+     *
+     * @return {@link Class}
+     */
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+}
@@ -0,0 +1,48 @@
+package com.jisj.winsearch.properties;
+
+/**
+ * Enum of <a href="https://learn.microsoft.com/en-us/windows/win32/properties/search-bumper">Windows Search properties</a>
+ * @see <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props">Windows Property System</a>
+ */
+public enum Search implements WinProperty {
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-search-rank">System.Search.Rank</a> Relevance rank of row. Ranges from 0 to 1000. Larger numbers = better matches
+     */
+    SystemSearchRank("System.Search.Rank", PropertyType.INT32),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-search-gathertime">System.Search.GatherTime</a> The Datetime that the Windows Search Gatherer process last pushed properties of this document to the Windows Search Gatherer Plugins
+     */
+    SystemSearchGatherTime("System.Search.GatherTime", PropertyType.FILETIME),
+    /**
+     * <a href="https://learn.microsoft.com/en-us/windows/win32/properties/props-system-search-autosummary">System.Search.AutoSummary</a> General summary of the document
+     */
+    SystemSearchAutoSummary("System.Search.AutoSummary", PropertyType.STRING);
+
+    private final String name;
+    private final PropertyType type;
+
+    Search(String name, PropertyType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Returns string name of property
+     *
+     * @return {@link String}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns declared type of property
+     *
+     * @return {@link PropertyType}
+     */
+    @Override
+    public PropertyType getType() {
+        return type;
+    }
+}
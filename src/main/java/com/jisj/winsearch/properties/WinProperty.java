@@ -9,4 +9,50 @@ public interface WinProperty {
      * @return {@link String} name like System.ItemName
      */
     String getName();
+
+    /**
+     * Returns declared type of the property
+     *
+     * @return {@link PropertyType} | {@link PropertyType#ANY} if the type is not declared
+     */
+    default PropertyType getType() {
+        return PropertyType.ANY;
+    }
+
+    /**
+     * Returns true for the string property with few distinct values, for ex. System.ItemTypeText.
+     * The result set encodes such columns by the dictionary and returns the repeated values as the shared instances
+     *
+     * @return true if the values are repeated
+     */
+    default boolean isLowCardinality() {
+        return false;
+    }
+
+    /**
+     * Returns VARTYPE of the property schema
+     *
+     * @return VARTYPE
+     */
+    default int getVarType() {
+        return getType().getVarType();
+    }
+
+    /**
+     * Returns true for the multi-valued property
+     *
+     * @return true if the value is a vector
+     */
+    default boolean isMultiValued() {
+        return getType().isMultiValued();
+    }
+
+    /**
+     * Returns Java type of the decoded value
+     *
+     * @return {@link Class}
+     */
+    default Class<?> getJavaType() {
+        return getType().getJavaType();
+    }
 }
@@ -0,0 +1,345 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.PropertyType;
+import com.jisj.winsearch.utils.OaIdlUtil;
+import com.jisj.winsearch.utils.StringDictionary;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.OaIdl.SAFEARRAY;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+
+import static com.sun.jna.platform.win32.Variant.*;
+
+/**
+ * Decoder of the column cells, chosen once per query by the declared {@link PropertyType type} of the column
+ * <p>The typed decoder reads the VARTYPE and the value of the expected wire VARTYPE directly from the memory of VARIANT,
+ * without reading the structure into its Java fields. Other VARTYPEs, including VT_EMPTY and VT_NULL,
+ * fall back to the conversion by VARTYPE of {@link OaIdlUtil#toJavaObject(VARIANT)}
+ * <p>The low-cardinality string columns are dictionary encoded per result set by {@link OfDictionary},
+ * other string columns are read by {@link OaIdlUtil#bstrToString(Pointer)}
+ */
+@FunctionalInterface
+interface ColumnDecoder {
+    /**
+     * Decoder of the column with unknown type
+     */
+    ColumnDecoder GENERIC = OaIdlUtil::toJavaObject;
+
+    /**
+     * Decodes the cell
+     *
+     * @param value VARIANT of the cell
+     * @return java object | null for the empty cell
+     */
+    Object decode(VARIANT value);
+
+    /**
+     * Decoder of the 64-bit integer column, reads the cells into primitive long without boxing
+     */
+    interface OfLong extends ColumnDecoder {
+        /**
+         * Decodes the not empty cell
+         *
+         * @param value VARIANT of the cell
+         * @return value
+         */
+        long decodeLong(VARIANT value);
+
+        @Override
+        default Object decode(VARIANT value) {
+            return isEmpty(value) ? null : decodeLong(value);
+        }
+    }
+
+    /**
+     * Decoder of the date column, reads the cells into primitive long of the local milliseconds without {@link java.util.Calendar}
+     *
+     * @see OaIdlUtil#oleDateToLocalMillis(double)
+     */
+    interface OfDate extends ColumnDecoder {
+        /**
+         * Decodes the not empty cell
+         *
+         * @param value VARIANT of the cell
+         * @return milliseconds since 1970-01-01 00:00 of the local time
+         */
+        long decodeLocalMillis(VARIANT value);
+
+        @Override
+        default Object decode(VARIANT value) {
+            if (isEmpty(value)) return null;
+            return new java.util.Date(OaIdlUtil.localMillisToEpochMillis(decodeLocalMillis(value), ZoneId.systemDefault()));
+        }
+    }
+
+    /**
+     * Decoder of the string column with the dictionary encoding. The repeated values are returned as the shared instances
+     * and can be stored as int codes. The decoder has a state, it is created for one result set
+     *
+     * @see StringDictionary
+     */
+    final class OfDictionary implements ColumnDecoder {
+        private final StringDictionary dictionary = new StringDictionary(StringDictionary.DEFAULT_CAPACITY);
+
+        /**
+         * Encodes the BSTR cell
+         *
+         * @param value VARIANT of the cell
+         * @return code | {@link StringDictionary#NO_CODE} if the cell is not encoded, it is decoded by {@link #decodeMissed(VARIANT)}
+         */
+        int encode(VARIANT value) {
+            if (varType(value) != VT_BSTR) return StringDictionary.NO_CODE;
+            return dictionary.encode(value.getPointer().getPointer(8));
+        }
+
+        /**
+         * Decodes the cell, that was not encoded by the last {@link #encode(VARIANT)}
+         *
+         * @param value VARIANT of the cell
+         * @return java object | null for the empty cell
+         */
+        Object decodeMissed(VARIANT value) {
+            if (varType(value) != VT_BSTR) return GENERIC.decode(value);
+            String overflow = dictionary.overflow();
+            return overflow != null ? overflow : OaIdlUtil.bstrToString(value.getPointer().getPointer(8));
+        }
+
+        /**
+         * Returns the shared value of the code
+         *
+         * @param code code of {@link #encode(VARIANT)}
+         * @return value
+         */
+        String get(int code) {
+            return dictionary.get(code);
+        }
+
+        @Override
+        public Object decode(VARIANT value) {
+            int code = encode(value);
+            return code != StringDictionary.NO_CODE ? get(code) : decodeMissed(value);
+        }
+    }
+
+    /**
+     * Decoder of the multi-valued string column, for ex. System.Keywords. The values of the current row are stored compactly
+     * as the codes of the column dictionary and exposed by the {@link #view() view} without copying.
+     * The decoder has a state, it is created for one result set
+     */
+    final class OfVector implements ColumnDecoder {
+        /**
+         * Offset of pvData in SAFEARRAY {cDims, fFeatures, cbElements, cLocks, pvData, rgsabound[0] {cElements, lLbound}}
+         */
+        private static final int SAFEARRAY_DATA = Native.POINTER_SIZE == 8 ? 16 : 12;
+        private final StringDictionary dictionary = new StringDictionary(StringDictionary.DEFAULT_CAPACITY);
+        private int[] codes = new int[16];
+        private int size = 0;
+        private int generation = 0;
+
+        /**
+         * Encodes the one-dimensional VT_ARRAY of VT_BSTR or VT_VARIANT with strings. The codes replace the values of the previous row
+         *
+         * @param value VARIANT of the cell
+         * @return true if encoded | false if the cell is not a vector of strings or the dictionary is full, it is decoded by {@link #decode(VARIANT)}
+         */
+        boolean encode(VARIANT value) {
+            generation++;
+            size = 0;
+            int varType = varType(value);
+            int elementType = varType & VT_TYPEMASK;
+            if ((varType & VT_ARRAY) == 0 || elementType != VT_BSTR && elementType != VT_VARIANT) return false;
+            Pointer array = value.getPointer().getPointer(8);
+            if (array == null || array.getShort(0) != 1) return false;
+            int elementSize = array.getInt(4);
+            Pointer data = array.getPointer(SAFEARRAY_DATA);
+            int count = array.getInt(SAFEARRAY_DATA + Native.POINTER_SIZE);
+            if (codes.length < count) codes = new int[Math.max(count, codes.length * 2)];
+            for (int i = 0; i < count; i++) {
+                long offset = (long) i * elementSize;
+                Pointer bstr;
+                if (elementType == VT_BSTR) bstr = data.getPointer(offset);
+                else if (data.getShort(offset) == VT_BSTR) bstr = data.getPointer(offset + 8);
+                else return false;
+                int code = dictionary.encode(bstr);
+                if (code == StringDictionary.NO_CODE) return false;
+                codes[i] = code;
+            }
+            size = count;
+            return true;
+        }
+
+        /**
+         * Returns the values of the last {@link #encode(VARIANT) encoded} cell
+         *
+         * @return new array of the shared values
+         */
+        String[] toArray() {
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) values[i] = dictionary.get(codes[i]);
+            return values;
+        }
+
+        /**
+         * Number of the values of the last {@link #encode(VARIANT) encoded} cell
+         *
+         * @return size
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Copies the codes of the last {@link #encode(VARIANT) encoded} cell
+         *
+         * @param target array of the codes
+         * @param offset start in the target
+         */
+        void copyCodes(int[] target, int offset) {
+            System.arraycopy(codes, 0, target, offset, size);
+        }
+
+        /**
+         * Returns the shared value of the code
+         *
+         * @param code code of {@link #copyCodes(int[], int)}
+         * @return value
+         */
+        String get(int code) {
+            return dictionary.get(code);
+        }
+
+        /**
+         * Returns the view of the values of the last {@link #encode(VARIANT) encoded} cell without copying.
+         * The view is valid until the next cell is encoded, then it throws {@link ConcurrentModificationException}
+         *
+         * @return unmodifiable list of the shared values
+         */
+        List<String> view() {
+            return new View(generation);
+        }
+
+        @Override
+        public Object decode(VARIANT value) {
+            return encode(value) ? toArray() : toStrings(value);
+        }
+
+        private final class View extends AbstractList<String> implements RandomAccess {
+            private final int viewGeneration;
+
+            private View(int viewGeneration) {
+                this.viewGeneration = viewGeneration;
+            }
+
+            @Override
+            public String get(int index) {
+                checkGeneration();
+                Objects.checkIndex(index, size);
+                return dictionary.get(codes[index]);
+            }
+
+            @Override
+            public int size() {
+                checkGeneration();
+                return size;
+            }
+
+            private void checkGeneration() {
+                if (viewGeneration != generation) throw new ConcurrentModificationException("The cursor was moved to the next row");
+            }
+        }
+    }
+
+    /**
+     * Returns decoder of the type for one result set
+     *
+     * @param type declared type of the column
+     * @return {@link ColumnDecoder}
+     */
+    static ColumnDecoder of(PropertyType type) {
+        return of(type, false);
+    }
+
+    /**
+     * Returns decoder of the type for one result set
+     *
+     * @param type           declared type of the column
+     * @param lowCardinality true to encode the string column by the dictionary
+     * @return {@link ColumnDecoder}
+     * @see com.jisj.winsearch.properties.WinProperty#isLowCardinality()
+     */
+    static ColumnDecoder of(PropertyType type, boolean lowCardinality) {
+        return switch (type) {
+            case STRING -> lowCardinality ? new OfDictionary()
+                    : typed(VT_BSTR, value -> OaIdlUtil.bstrToString(value.getPointer().getPointer(8)));
+            case BOOLEAN -> typed(VT_BOOL, value -> value.getPointer().getShort(8) != 0);
+            case INT32 -> typed(VT_I4, value -> value.getPointer().getInt(8));
+            case UINT32 -> typed(VT_UI4, value -> value.getPointer().getInt(8));
+            case INT64, UINT64 -> (OfLong) ColumnDecoder::toLong;
+            case DOUBLE -> typed(VT_R8, value -> value.getPointer().getDouble(8));
+            case FILETIME -> (OfDate) ColumnDecoder::toLocalMillis;
+            case STRING_VECTOR -> new OfVector();
+            case ANY -> GENERIC;
+        };
+    }
+
+    /**
+     * Reads VARTYPE from the memory of VARIANT. {@link VARIANT#getVarType()} reads the whole structure on every call
+     *
+     * @param value VARIANT of the cell
+     * @return VARTYPE
+     */
+    static int varType(VARIANT value) {
+        return value.getPointer().getShort(0) & 0xffff;
+    }
+
+    /**
+     * Checks the cell for VT_EMPTY and VT_NULL
+     *
+     * @param value VARIANT of the cell
+     * @return true for the empty cell
+     */
+    static boolean isEmpty(VARIANT value) {
+        int varType = varType(value);
+        return varType == VT_EMPTY || varType == VT_NULL;
+    }
+
+    private static ColumnDecoder typed(int wireType, ColumnDecoder decoder) {
+        return value -> varType(value) == wireType ? decoder.decode(value) : GENERIC.decode(value);
+    }
+
+    /**
+     * The provider returns VT_UI8 as VT_DECIMAL, its low 64 bits are at the same offset as the value of VT_I8 and VT_UI8
+     */
+    private static long toLong(VARIANT value) {
+        return switch (varType(value)) {
+            case VT_I8, VT_UI8, VT_DECIMAL -> OaIdlUtil.toLong(value);
+            default -> ((Number) GENERIC.decode(value)).longValue();
+        };
+    }
+
+    /**
+     * The provider returns VT_FILETIME as VT_DATE of the local time
+     */
+    private static long toLocalMillis(VARIANT value) {
+        if (varType(value) == VT_DATE) return OaIdlUtil.oleDateToLocalMillis(value.getPointer().getDouble(8));
+        Object obj = GENERIC.decode(value);
+        if (!(obj instanceof java.util.Date date))
+            throw new IllegalStateException("Unexpected type: " + varType(value) + " of the date column");
+        long epochMillis = date.getTime();
+        return epochMillis + ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * Multi-valued strings are returned as VT_ARRAY of VT_BSTR or VT_VARIANT
+     */
+    private static Object toStrings(VARIANT value) {
+        int varType = varType(value);
+        if ((varType & VT_ARRAY) == 0) return GENERIC.decode(value);
+        String[] strings = OaIdlUtil.toStringArray(new SAFEARRAY(value.getPointer().getPointer(8)));
+        return strings != null ? strings : GENERIC.decode(value);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jisj.winsearch.sql;
+
+import com.sun.jna.Memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native memory of the rows of {@link ResultTable}, that exceeded the heap budget. Each block is one region of {@link Memory},
+ * so the strings of the rows are not on the Java heap and do not take part in GC
+ * <p>The memory is freed on {@link #close()}, the table must not be read concurrently with closing
+ */
+final class OffHeapStore extends RowStore {
+    private final List<Memory> blocks = new ArrayList<>();
+
+    @Override
+    long writeBlock(ByteBuffer header, ByteBuffer rows) {
+        Memory memory = new Memory(header.remaining() + (long) rows.remaining());
+        memory.getByteBuffer(0, memory.size()).put(header).put(rows);
+        blocks.add(memory);
+        return address(blocks.size() - 1, 0);
+    }
+
+    @Override
+    ByteBuffer[] readRegions() {
+        ByteBuffer[] regions = new ByteBuffer[blocks.size()];
+        for (int i = 0; i < regions.length; i++) regions[i] = blocks.get(i).getByteBuffer(0, blocks.get(i).size()).asReadOnlyBuffer();
+        return regions;
+    }
+
+    @Override
+    void release() {
+        for (Memory memory : blocks) memory.close();
+        blocks.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.WinProperty;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link RowMapper} that declares the columns it reads.
+ * <p>The executor narrows the SELECT list of the query to the declared columns, so the other columns are not
+ * transferred and decoded. The mapper should read the values by label, for ex. {@code rs.getObject("System.FileName")},
+ * because the column indexes differ from the original query
+ *
+ * @param <T> type of mapper result
+ */
+public interface Projection<T> extends RowMapper<T> {
+    /**
+     * Columns read by the mapper
+     *
+     * @return list of column names
+     */
+    List<String> columns();
+
+    /**
+     * Creates projection
+     *
+     * @param mapper  {@link RowMapper} that reads values by label
+     * @param columns columns read by the mapper
+     * @param <T>     type of mapper result
+     * @return {@link Projection} object
+     */
+    static <T> Projection<T> of(RowMapper<T> mapper, String... columns) {
+        if (columns.length == 0) throw new IllegalArgumentException("Projection requires columns");
+        final List<String> list = List.of(columns);
+        return new Projection<>() {
+            @Override
+            public List<String> columns() {
+                return list;
+            }
+
+            @Override
+            public T map(WinSearchResultSet resultSet) throws SQLException {
+                return mapper.map(resultSet);
+            }
+        };
+    }
+
+    /**
+     * Creates projection
+     *
+     * @param mapper  {@link RowMapper} that reads values by label
+     * @param columns columns read by the mapper
+     * @param <T>     type of mapper result
+     * @return {@link Projection} object
+     */
+    static <T> Projection<T> of(RowMapper<T> mapper, WinProperty... columns) {
+        return of(mapper, Arrays.stream(columns).map(WinProperty::getName).toArray(String[]::new));
+    }
+}
@@ -32,6 +32,14 @@ public interface ResultSetEnrich {
      */
     long size() throws SQLException;
 
+    /**
+     * Returns values of all columns of the current row
+     *
+     * @return new array of column values
+     * @throws SQLException called on closed ResultSet or out of the rows
+     */
+    Object[] toArray() throws SQLException;
+
     /**
      * Stream of ResultSet
      *
@@ -0,0 +1,255 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.ado.ADORecordset;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link Flow.Publisher} for rows of {@link WinSearchResultSet}
+ * <ul>
+ *     <li>the result set is opened for each subscriber on the COM executor, the thread of COM apartment</li>
+ *     <li>the rows are fetched and mapped on the COM executor only on subscriber demand {@link Flow.Subscription#request(long) request(n)}</li>
+ *     <li>signals are delivered to subscriber on the delivery executor, one by one</li>
+ *     <li>cancel, error or completion closes the result set ({@link ADORecordset}) and registered objects on the COM executor</li>
+ *     <li>one fetch turn maps not more than {@value #TURN_ROWS} rows, so the subscriptions can share the COM threads</li>
+ *     <li>the subscription without demand longer than the idle timeout is terminated with {@link WinSearchTimeoutException}</li>
+ * </ul>
+ *
+ * @param <T> type of mapped rows
+ */
+public class ResultSetPublisher<T> implements Flow.Publisher<T> {
+    /**
+     * Maximum number of rows mapped by one task of the COM executor
+     */
+    public static final int TURN_ROWS = 256;
+    /**
+     * Timer of the idle subscriptions, one daemon thread for all publishers
+     */
+    private static final ScheduledThreadPoolExecutor IDLE_TIMER = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform()
+            .name("winsearch-idle-timer")
+            .daemon(true)
+            .factory());
+
+    static {
+        IDLE_TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Opener opener;
+    private final RowMapper<T> mapper;
+    private final Executor comExecutor;
+    private final Executor deliveryExecutor;
+    private final AutoCloseable[] closeObjects;
+    private final Duration idleTimeout;
+
+    /**
+     * Opener of the result set for a new subscriber
+     */
+    @FunctionalInterface
+    public interface Opener {
+        /**
+         * Opens the result set. Called on the COM executor
+         *
+         * @param closeObjects objects added to the deque are closed in reverse order after the result set, when subscription is terminated
+         * @return opened {@link WinSearchResultSet}
+         * @throws SQLException if the result set cannot be opened
+         */
+        WinSearchResultSet open(Deque<AutoCloseable> closeObjects) throws SQLException;
+    }
+
+    /**
+     * Creates publisher
+     *
+     * @param opener           {@link Opener} of the result set
+     * @param mapper           {@link RowMapper} for one row, called on the COM executor
+     * @param comExecutor      executor of the thread that owns COM objects of the result set
+     * @param deliveryExecutor executor for subscriber signals
+     * @param closeObjects     Optional. Objects that should be closed last when a subscription is terminated, even if the result set was not opened
+     */
+    public ResultSetPublisher(Opener opener, RowMapper<T> mapper, Executor comExecutor, Executor deliveryExecutor, AutoCloseable... closeObjects) {
+        this(opener, mapper, comExecutor, deliveryExecutor, Duration.ZERO, closeObjects);
+    }
+
+    /**
+     * Creates publisher, that terminates idle subscriptions
+     *
+     * @param opener           {@link Opener} of the result set
+     * @param mapper           {@link RowMapper} for one row, called on the COM executor
+     * @param comExecutor      executor of the thread that owns COM objects of the result set
+     * @param deliveryExecutor executor for subscriber signals
+     * @param idleTimeout      maximum time without demand, after that the subscription is terminated and its objects are closed.
+     *                         {@link Duration#ZERO} for no limit
+     * @param closeObjects     Optional. Objects that should be closed last when a subscription is terminated, even if the result set was not opened
+     */
+    public ResultSetPublisher(Opener opener, RowMapper<T> mapper, Executor comExecutor, Executor deliveryExecutor,
+                              Duration idleTimeout, AutoCloseable... closeObjects) {
+        if (idleTimeout.isNegative()) throw new IllegalArgumentException("Idle timeout cannot be negative: " + idleTimeout);
+        this.idleTimeout = idleTimeout;
+        this.opener = Objects.requireNonNull(opener);
+        this.mapper = Objects.requireNonNull(mapper);
+        this.comExecutor = Objects.requireNonNull(comExecutor);
+        this.deliveryExecutor = Objects.requireNonNull(deliveryExecutor);
+        this.closeObjects = closeObjects;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscription.signal(() -> subscriber.onSubscribe(subscription));
+    }
+
+    private class RowSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger fetchWip = new AtomicInteger();
+        private final AtomicInteger signalWip = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Runnable> signals = new ConcurrentLinkedQueue<>();
+        private final Deque<AutoCloseable> closeObjects = new ArrayDeque<>();
+        private volatile boolean cancelled = false;
+        private volatile boolean idle = false;
+        private volatile ScheduledFuture<?> idleTimer;
+        private WinSearchResultSet resultSet;
+        private boolean terminated = false;
+
+        private RowSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            for (AutoCloseable closeable : ResultSetPublisher.this.closeObjects) closeObjects.push(closeable);
+            startIdleTimer();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                signal(() -> subscriber.onError(new IllegalArgumentException("Non-positive request: " + n)));
+            } else demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            stopIdleTimer();
+            scheduleFetch();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            stopIdleTimer();
+            scheduleFetch();
+        }
+
+        private void startIdleTimer() {
+            if (idleTimeout.isZero() || cancelled) return;
+            stopIdleTimer();
+            idleTimer = IDLE_TIMER.schedule(() -> {
+                idle = true;
+                scheduleFetch();
+            }, idleTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private void stopIdleTimer() {
+            ScheduledFuture<?> timer = idleTimer;
+            if (timer != null) timer.cancel(false);
+        }
+
+        private void scheduleFetch() {
+            if (fetchWip.getAndIncrement() == 0) comExecutor.execute(this::fetch);
+        }
+
+        /**
+         * Fetch loop on the COM executor. The loop yields the thread after {@value #TURN_ROWS} rows and continues in the next task
+         */
+        private void fetch() {
+            int missed = 1;
+            do {
+                if (!terminated && fetchDemanded()) {
+                    comExecutor.execute(this::fetch);
+                    return;
+                }
+                missed = fetchWip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Fetches the demanded rows
+         *
+         * @return true if the turn is over and there is the demand yet
+         */
+        private boolean fetchDemanded() {
+            try {
+                if (cancelled) {
+                    terminate();
+                    return false;
+                }
+                if (idle) {
+                    idle = false;
+                    if (demand.get() == 0) {
+                        terminate();
+                        signal(() -> subscriber.onError(new WinSearchTimeoutException("Subscription without demand exceeded idle timeout of " + idleTimeout)));
+                        return false;
+                    }
+                }
+                if (resultSet == null && demand.get() > 0) resultSet = opener.open(closeObjects);
+                for (int rows = 0; demand.get() > 0 && !cancelled; rows++) {
+                    if (rows == TURN_ROWS) return true;
+                    if (!resultSet.next()) {
+                        terminate();
+                        signal(subscriber::onComplete);
+                        return false;
+                    }
+                    T item = mapper.map(resultSet);
+                    demand.decrementAndGet();
+                    signal(() -> subscriber.onNext(item));
+                }
+                if (cancelled) terminate();
+                else startIdleTimer();
+            } catch (Exception e) {
+                terminate();
+                signal(() -> subscriber.onError(e));
+            }
+            return false;
+        }
+
+        private void terminate() {
+            if (terminated) return;
+            terminated = true;
+            cancelled = true;
+            stopIdleTimer();
+            if (resultSet != null) closeObjects.push(resultSet);
+            while (!closeObjects.isEmpty()) {
+                try {
+                    closeObjects.pop().close();
+                } catch (Exception ignored) {
+                    //closing errors are not reported to subscriber
+                }
+            }
+        }
+
+        /**
+         * Serial delivery of the signals to subscriber
+         */
+        private void signal(Runnable signal) {
+            signals.add(signal);
+            if (signalWip.getAndIncrement() == 0) deliveryExecutor.execute(this::deliver);
+        }
+
+        private void deliver() {
+            do {
+                Runnable signal = signals.poll();
+                try {
+                    if (signal != null) signal.run();
+                } catch (RuntimeException e) {
+                    cancel();
+                }
+            } while (signalWip.decrementAndGet() != 0);
+        }
+    }
+}
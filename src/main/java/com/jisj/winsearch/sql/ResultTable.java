@@ -0,0 +1,856 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.PropertyType;
+import com.jisj.winsearch.utils.OaIdlUtil;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Disconnected result of the query, materialized in memory and detached from COM, see {@link WinSearchResultSet#toTable()}
+ * <p>The cells are stored by columns: 64-bit integer and date columns in the primitive long arrays, multi-valued string columns
+ * in one flat array with the row offsets, other columns in the object arrays. The repeated strings of low-cardinality and
+ * multi-valued columns are the shared instances of the column dictionaries.
+ * <p>When the estimated heap size of the rows exceeds the heap budget of {@link WinSearchResultSet#toTable(int, long, Spill)},
+ * the next rows are stored compactly out of the Java heap, see {@link Spill}. The store is released when the table is {@link #close() closed}.
+ * <p>The table is immutable and can be shared between threads. Each thread reads the table by its own {@link #cursor() cursor},
+ * the moves of the cursor are O(1)
+ */
+public final class ResultTable implements AutoCloseable {
+    private final ZoneId zone;
+    private final String[] columnNames;
+    private final PropertyType[] columnTypes;
+    private final Map<String, Integer> columnIndexes;
+    private final Column[] columns;
+    private final int memorySize;
+    private final RowStore spill;
+    private final int size;
+
+    /**
+     * Store of the rows, that exceeded the heap budget
+     */
+    public enum Spill {
+        /**
+         * Temporary file, that is read from the memory-mapped regions. For the results, that are larger than memory
+         */
+        FILE,
+        /**
+         * Native memory. For the long-lived results, the strings are not on the Java heap and do not increase GC pauses
+         */
+        OFF_HEAP
+    }
+
+    private ResultTable(Builder builder) {
+        this.zone = builder.zone;
+        this.columnNames = builder.columnNames;
+        this.columnTypes = builder.columnTypes;
+        Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < columnNames.length; i++) indexes.putIfAbsent(columnNames[i], i);
+        this.columnIndexes = indexes;
+        for (Column column : builder.columns) column.trim(builder.size);
+        this.columns = builder.columns;
+        this.memorySize = builder.size;
+        this.spill = builder.spill;
+        if (spill != null) spill.finish();
+        this.size = memorySize + (spill == null ? 0 : spill.size());
+    }
+
+    /**
+     * Number of rows
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true, if the rows exceeded the heap budget and the part of them is stored out of the Java heap
+     *
+     * @return true if the table is spilled
+     */
+    public boolean isSpilled() {
+        return spill != null;
+    }
+
+    /**
+     * Number of columns
+     *
+     * @return column count
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the name of the column, for ex. System.FileName
+     *
+     * @param column index of the column, <b>0-based</b>
+     * @return field name of the Recordset
+     * @throws IndexOutOfBoundsException when the index is out of bounds
+     */
+    public String getColumnName(int column) {
+        return columnNames[Objects.checkIndex(column, columns.length)];
+    }
+
+    /**
+     * Returns declared type of the column
+     *
+     * @param column index of the column, <b>0-based</b>
+     * @return {@link PropertyType}
+     * @throws IndexOutOfBoundsException when the index is out of bounds
+     */
+    public PropertyType getColumnType(int column) {
+        return columnTypes[Objects.checkIndex(column, columns.length)];
+    }
+
+    /**
+     * Maps the column name to its index, compared case-insensitive
+     *
+     * @param columnName column name
+     * @return index of the column, <b>0-based</b> | -1 if the column is not in the table
+     */
+    public int findColumn(String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Retrieves the value of the cell
+     *
+     * @param row    index of the row, <b>0-based</b>
+     * @param column index of the column, <b>0-based</b>
+     * @return java object | null for the empty cell
+     * @throws IndexOutOfBoundsException when the row or column is out of bounds
+     */
+    public Object getObject(int row, int column) {
+        Column col = column(row, column);
+        return row < memorySize ? col.get(row) : spill.read(spill.cell(row - memorySize, column), zone);
+    }
+
+    /**
+     * Retrieves the value of the cell as the type. The date cells are converted to {@link java.time.LocalDateTime},
+     * {@link java.time.OffsetDateTime}, {@link java.time.Instant}, {@link java.sql.Timestamp}, {@link java.sql.Date}
+     * or {@link java.util.Date}
+     *
+     * @param row    index of the row, <b>0-based</b>
+     * @param column index of the column, <b>0-based</b>
+     * @param type   class of the value
+     * @param <T>    type of the value
+     * @return value | null for the empty cell
+     * @throws IndexOutOfBoundsException when the row or column is out of bounds
+     * @throws IllegalStateException     when the value can not be converted to the type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getObject(int row, int column, Class<T> type) {
+        Column col = column(row, column);
+        Object obj;
+        if (row < memorySize) {
+            if (col instanceof DateColumn date && !date.isNull(row)) {
+                T value = WinSearchResultSet.convertDate(date.values[row], type, zone);
+                if (value != null) return value;
+            }
+            obj = col.get(row);
+        } else {
+            long cell = spill.cell(row - memorySize, column);
+            if (spill.tag(cell) == RowStore.DATE) {
+                T value = WinSearchResultSet.convertDate(spill.readLong(cell), type, zone);
+                if (value != null) return value;
+            }
+            obj = spill.read(cell, zone);
+        }
+        if (obj == null) return null;
+        if (obj.getClass() == type) return (T) obj;
+        if (obj instanceof java.util.Date date) {
+            T value = WinSearchResultSet.convertDate(WinSearchResultSet.toLocalMillis(date, zone), type, zone);
+            if (value != null) return value;
+        }
+        throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + column);
+    }
+
+    /**
+     * Retrieves the value of the 64-bit integer column without boxing
+     *
+     * @param row    index of the row, <b>0-based</b>
+     * @param column index of the column, <b>0-based</b>
+     * @return value | 0 for the empty cell
+     * @throws IndexOutOfBoundsException when the row or column is out of bounds
+     * @throws IllegalStateException     when the value is not a number
+     */
+    public long getLong(int row, int column) {
+        Column col = column(row, column);
+        Object obj;
+        if (row < memorySize) {
+            if (col instanceof LongColumn longs && !(col instanceof DateColumn)) return longs.values[row];
+            obj = col.get(row);
+        } else {
+            long cell = spill.cell(row - memorySize, column);
+            if (spill.tag(cell) == RowStore.LONG) return spill.readLong(cell);
+            obj = spill.read(cell, zone);
+        }
+        if (obj == null) return 0;
+        if (obj instanceof Number number) return number.longValue();
+        throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + column);
+    }
+
+    /**
+     * Returns the values of the multi-valued column without copying the rows in heap
+     *
+     * @param row    index of the row, <b>0-based</b>
+     * @param column index of the column, <b>0-based</b>
+     * @return unmodifiable list of the values | empty list for the empty cell | list of one value for the single-valued column
+     * @throws IndexOutOfBoundsException when the row or column is out of bounds
+     */
+    public List<String> getValues(int row, int column) {
+        Column col = column(row, column);
+        if (row < memorySize && col instanceof VectorColumn vector) return vector.view(row);
+        Object obj = getObject(row, column);
+        if (obj == null) return List.of();
+        if (obj instanceof String[] values) return Collections.unmodifiableList(Arrays.asList(values));
+        if (obj instanceof String value) return List.of(value);
+        throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + column);
+    }
+
+    /**
+     * Creates the new cursor positioned before the first row. The cursor is not thread-safe, it should be created for each thread
+     *
+     * @return {@link Cursor}
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Releases the store of the spilled table: deletes the temporary file or frees the native memory.
+     * The rows in heap are still readable. The table must not be read by other threads during closing
+     *
+     * @throws UncheckedIOException when the temporary file can not be closed
+     */
+    @Override
+    public void close() {
+        if (spill == null) return;
+        try {
+            spill.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Column column(int row, int column) {
+        Objects.checkIndex(row, size);
+        return columns[Objects.checkIndex(column, columns.length)];
+    }
+
+    /**
+     * Scrollable read-only {@link java.sql.ResultSet} over the {@link ResultTable}, so the {@link RowMapper row mappers}
+     * and {@link #stream() streams} of {@link WinSearchResultSet} can be used for the table.
+     * The moves {@link #absolute(int)}, {@link #relative(int)}, {@link #last()} and {@link #getRow()} are O(1).
+     * The column indexes are <b>0-based</b> as in {@link WinSearchResultSet#getObject(int)}
+     */
+    public static final class Cursor extends WinSearchResultSet {
+        private final ResultTable table;
+        /**
+         * Row number: 0 before the first row, size + 1 after the last row
+         */
+        private int position = 0;
+        private boolean closed = false;
+
+        private Cursor(ResultTable table) {
+            super(null, null);
+            this.table = table;
+        }
+
+        /**
+         * Returns the table of this cursor
+         *
+         * @return {@link ResultTable}
+         */
+        public ResultTable getTable() {
+            return table;
+        }
+
+        @Override
+        public long size() throws SQLException {
+            assertOpen();
+            return table.size;
+        }
+
+        @Override
+        public boolean isEmpty() throws SQLException {
+            assertOpen();
+            return table.size == 0;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            return relative(1);
+        }
+
+        @Override
+        public boolean previous() throws SQLException {
+            return relative(-1);
+        }
+
+        @Override
+        public boolean first() throws SQLException {
+            return absolute(1);
+        }
+
+        @Override
+        public boolean last() throws SQLException {
+            return absolute(-1);
+        }
+
+        @Override
+        public void beforeFirst() throws SQLException {
+            assertOpen();
+            position = 0;
+        }
+
+        @Override
+        public void afterLast() throws SQLException {
+            assertOpen();
+            position = table.size + 1;
+        }
+
+        /**
+         * Moves the cursor to the row number. The negative number is counted from the end: -1 is the last row
+         *
+         * @param row number of the row, <b>1-based</b>
+         * @return true if the cursor is on the row
+         * @throws SQLException when the cursor is closed
+         */
+        @Override
+        public boolean absolute(int row) throws SQLException {
+            assertOpen();
+            if (row >= 0) position = Math.min(row, table.size + 1);
+            else position = Math.max(table.size + 1 + row, 0);
+            return isOnRow();
+        }
+
+        @Override
+        public boolean relative(int rows) throws SQLException {
+            assertOpen();
+            position = (int) Math.max(0, Math.min((long) position + rows, table.size + 1));
+            return isOnRow();
+        }
+
+        @Override
+        public int getRow() throws SQLException {
+            assertOpen();
+            return isOnRow() ? position : 0;
+        }
+
+        @Override
+        public boolean isBeforeFirst() throws SQLException {
+            assertOpen();
+            return table.size > 0 && position == 0;
+        }
+
+        @Override
+        public boolean isAfterLast() throws SQLException {
+            assertOpen();
+            return table.size > 0 && position == table.size + 1;
+        }
+
+        @Override
+        public boolean isFirst() {
+            return !closed && table.size > 0 && position == 1;
+        }
+
+        @Override
+        public boolean isLast() {
+            return !closed && table.size > 0 && position == table.size;
+        }
+
+        /**
+         * Closes the cursor. The table is shared by the cursors and is closed by its owner
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public Object getObject(int columnIndex) throws SQLException {
+            return table.getObject(currentRow(), assertIndex(columnIndex));
+        }
+
+        @Override
+        public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+            return table.getObject(currentRow(), assertIndex(columnIndex), type);
+        }
+
+        @Override
+        public long getLong(int columnIndex) throws SQLException {
+            return table.getLong(currentRow(), assertIndex(columnIndex));
+        }
+
+        /**
+         * Returns the values of the multi-valued column without copying. The list stays valid after the cursor is moved
+         */
+        @Override
+        public List<String> getValues(int columnIndex) throws SQLException {
+            return table.getValues(currentRow(), assertIndex(columnIndex));
+        }
+
+        @Override
+        public Object[] toArray() throws SQLException {
+            int row = currentRow();
+            Object[] array = new Object[table.columns.length];
+            for (int i = 0; i < array.length; i++) array[i] = table.getObject(row, i);
+            return array;
+        }
+
+        @Override
+        public int findColumn(String columnLabel) throws SQLException {
+            int index = table.findColumn(columnLabel);
+            if (index < 0) throw new WinSearchSQLException("Column not found: " + columnLabel);
+            return index;
+        }
+
+        @Override
+        public PropertyType getColumnType(int columnIndex) throws SQLException {
+            return table.columnTypes[assertIndex(columnIndex)];
+        }
+
+        /**
+         * Returns the table of this cursor, it is already materialized
+         *
+         * @return {@link ResultTable}
+         */
+        @Override
+        public ResultTable toTable(int blockSize, long heapBudget, Spill spill) {
+            return table;
+        }
+
+        @Override
+        public Statement getStatement() throws SQLException {
+            assertOpen();
+            return null;
+        }
+
+        /**
+         * Unwraps {@link ResultTable} of this cursor
+         *
+         * @param iface {@link ResultTable}.class
+         * @param <T>   {@link ResultTable}
+         * @return table
+         * @throws SQLException for other interfaces
+         */
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (isWrapperFor(iface)) return iface.cast(table);
+            throw new WinSearchSQLException("No object found that implements the interface " + iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface == ResultTable.class;
+        }
+
+        private boolean isOnRow() {
+            return position > 0 && position <= table.size;
+        }
+
+        private int currentRow() throws SQLException {
+            assertOpen();
+            if (position == 0) throw new WinSearchSQLException("Try reading before first record");
+            if (position > table.size) throw new WinSearchSQLException("Try reading after last record");
+            return position - 1;
+        }
+
+        private int assertIndex(int columnIndex) throws WinSearchSQLException {
+            if (columnIndex < 0 || columnIndex >= table.columns.length)
+                throw new WinSearchSQLException("Index " + columnIndex + " out of bounds for length of record " + table.columns.length);
+            return columnIndex;
+        }
+
+        private void assertOpen() throws WinSearchSQLException {
+            if (closed) throw new WinSearchSQLException("ResultSet is closed");
+        }
+    }
+
+    /**
+     * Builder of the table, the rows are appended by the {@link ColumnDecoder decoders} of the columns.
+     * The rows after the heap budget are written to {@link RowStore}
+     */
+    static final class Builder {
+        private final ZoneId zone = ZoneId.systemDefault();
+        private final String[] columnNames;
+        private final PropertyType[] columnTypes;
+        private final Column[] columns;
+        private final long heapBudget;
+        private final Spill spillTo;
+        private long heapSize = 0;
+        private int size = 0;
+        private RowStore spill;
+
+        /**
+         * Creates builder
+         *
+         * @param columnNames names of the columns
+         * @param columnTypes declared types of the columns
+         * @param decoders    decoders of the columns for one result set
+         * @param capacity    expected number of rows, negative if unknown
+         * @param heapBudget  estimated heap size of the rows in bytes, after which the rows are spilled
+         * @param spillTo     store of the spilled rows
+         */
+        Builder(String[] columnNames, PropertyType[] columnTypes, ColumnDecoder[] decoders, long capacity, long heapBudget, Spill spillTo) {
+            if (heapBudget < 0) throw new IllegalArgumentException("Heap budget must not be negative: " + heapBudget);
+            this.columnNames = columnNames;
+            this.columnTypes = columnTypes;
+            this.heapBudget = heapBudget;
+            this.spillTo = spillTo;
+            int initial = (int) Math.max(16, Math.min(capacity, Math.min(1 << 20, heapBudget / 8 / Math.max(1, decoders.length))));
+            columns = new Column[decoders.length];
+            for (int i = 0; i < columns.length; i++) {
+                if (decoders[i] instanceof ColumnDecoder.OfDate date) columns[i] = new DateColumn(date, initial, zone);
+                else if (decoders[i] instanceof ColumnDecoder.OfLong longs) columns[i] = new LongColumn(longs, initial);
+                else if (decoders[i] instanceof ColumnDecoder.OfVector vector) columns[i] = new VectorColumn(vector, initial);
+                else columns[i] = new ObjectColumn(decoders[i], initial);
+            }
+        }
+
+        /**
+         * Appends the row of the cells
+         *
+         * @param cells  VARIANTs of the block
+         * @param offset index of the first cell of the row
+         */
+        void appendRow(VARIANT[] cells, int offset) {
+            if (spill == null && heapSize >= heapBudget) startSpill();
+            if (spill != null) {
+                for (int i = 0; i < columns.length; i++) columns[i].write(cells[offset + i], spill);
+                spill.endRow();
+                return;
+            }
+            for (int i = 0; i < columns.length; i++) heapSize += columns[i].append(cells[offset + i]);
+            size++;
+        }
+
+        /**
+         * Appends the row of the decoded values. The dates are {@link java.util.Date}, the multi-valued strings are {@link String}[]
+         *
+         * @param values values of the row
+         */
+        void appendRow(Object... values) {
+            if (values.length != columns.length)
+                throw new IllegalArgumentException("Row length " + values.length + " differs from column count " + columns.length);
+            if (spill == null && heapSize >= heapBudget) startSpill();
+            if (spill != null) {
+                for (int i = 0; i < columns.length; i++) columns[i].write(values[i], spill);
+                spill.endRow();
+                return;
+            }
+            for (int i = 0; i < columns.length; i++) heapSize += columns[i].append(values[i]);
+            size++;
+        }
+
+        ResultTable build() {
+            return new ResultTable(this);
+        }
+
+        /**
+         * Deletes the temporary file, when the table is not built
+         */
+        void discard() {
+            if (spill == null) return;
+            try {
+                spill.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void startSpill() {
+            try {
+                spill = spillTo == Spill.OFF_HEAP ? new OffHeapStore() : new SpillFile();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Column of the table. It is written only by the {@link Builder} before the table is created
+     */
+    private abstract static class Column {
+        /**
+         * Appends the cell
+         *
+         * @return estimated heap size of the cell in bytes
+         */
+        abstract long append(VARIANT cell);
+
+        /**
+         * Appends the decoded value
+         *
+         * @return estimated heap size of the cell in bytes
+         */
+        abstract long append(Object value);
+
+        abstract void write(VARIANT cell, RowStore spill);
+
+        abstract void write(Object value, RowStore spill);
+
+        abstract Object get(int row);
+
+        abstract void trim(int size);
+
+        /**
+         * Estimated heap size of the decoded value: object header, fields and reference. The shared strings are counted every time
+         */
+        static long estimate(Object value) {
+            return switch (value) {
+                case null -> 0;
+                case String str -> 48 + 2L * str.length();
+                case String[] strings -> {
+                    long bytes = 16 + 8L * strings.length;
+                    for (String str : strings) bytes += estimate(str);
+                    yield bytes;
+                }
+                case Number ignored -> 24;
+                case Boolean ignored -> 0;
+                default -> 32;
+            };
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private final ColumnDecoder decoder;
+        private Object[] values;
+        private int size = 0;
+
+        private ObjectColumn(ColumnDecoder decoder, int capacity) {
+            this.decoder = decoder;
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        long append(VARIANT cell) {
+            return append(decoder.decode(cell));
+        }
+
+        @Override
+        long append(Object value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+            return 8 + estimate(value);
+        }
+
+        @Override
+        void write(VARIANT cell, RowStore spill) {
+            spill.writeValue(decoder.decode(cell));
+        }
+
+        @Override
+        void write(Object value, RowStore spill) {
+            spill.writeValue(value);
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void trim(int size) {
+            if (values.length != size) values = Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private final ColumnDecoder.OfLong decoder;
+        private final BitSet nulls = new BitSet();
+        long[] values;
+        int size = 0;
+
+        private LongColumn(ColumnDecoder.OfLong decoder, int capacity) {
+            this.decoder = decoder;
+            this.values = new long[capacity];
+        }
+
+        @Override
+        long append(VARIANT cell) {
+            if (ColumnDecoder.isEmpty(cell)) appendNull();
+            else appendLong(decoder.decodeLong(cell));
+            return 8;
+        }
+
+        @Override
+        long append(Object value) {
+            if (value == null) appendNull();
+            else appendLong(((Number) value).longValue());
+            return 8;
+        }
+
+        @Override
+        void write(VARIANT cell, RowStore spill) {
+            if (ColumnDecoder.isEmpty(cell)) spill.writeNull();
+            else spill.writeLong(decoder.decodeLong(cell));
+        }
+
+        @Override
+        void write(Object value, RowStore spill) {
+            if (value == null) spill.writeNull();
+            else spill.writeLong(((Number) value).longValue());
+        }
+
+        final void appendNull() {
+            nulls.set(size);
+            appendLong(0);
+        }
+
+        final void appendLong(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        final boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        void trim(int size) {
+            if (values.length != size) values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * The values are the local milliseconds of {@link ColumnDecoder.OfDate}
+     */
+    private static final class DateColumn extends LongColumn {
+        private final ColumnDecoder.OfDate decoder;
+        private final ZoneId zone;
+
+        private DateColumn(ColumnDecoder.OfDate decoder, int capacity, ZoneId zone) {
+            super(null, capacity);
+            this.decoder = decoder;
+            this.zone = zone;
+        }
+
+        @Override
+        long append(VARIANT cell) {
+            if (ColumnDecoder.isEmpty(cell)) appendNull();
+            else appendLong(decoder.decodeLocalMillis(cell));
+            return 8;
+        }
+
+        @Override
+        long append(Object value) {
+            if (value == null) appendNull();
+            else appendLong(WinSearchResultSet.toLocalMillis((java.util.Date) value, zone));
+            return 8;
+        }
+
+        @Override
+        void write(VARIANT cell, RowStore spill) {
+            if (ColumnDecoder.isEmpty(cell)) spill.writeNull();
+            else spill.writeDate(decoder.decodeLocalMillis(cell));
+        }
+
+        @Override
+        void write(Object value, RowStore spill) {
+            if (value == null) spill.writeNull();
+            else spill.writeDate(WinSearchResultSet.toLocalMillis((java.util.Date) value, zone));
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : new java.util.Date(OaIdlUtil.localMillisToEpochMillis(values[row], zone));
+        }
+    }
+
+    /**
+     * The values of all rows are in one flat array, the values of the row are [offsets[row], offsets[row + 1])
+     */
+    private static final class VectorColumn extends Column {
+        private final ColumnDecoder.OfVector decoder;
+        private final BitSet nulls = new BitSet();
+        private int[] offsets;
+        private String[] values;
+        private int size = 0;
+
+        private VectorColumn(ColumnDecoder.OfVector decoder, int capacity) {
+            this.decoder = decoder;
+            this.offsets = new int[capacity + 1];
+            this.values = new String[capacity];
+        }
+
+        @Override
+        long append(VARIANT cell) {
+            return decoder.encode(cell) ? appendValues(decoder.view()) : append(decoder.decode(cell));
+        }
+
+        @Override
+        long append(Object value) {
+            if (value != null) return appendValues(toValues(value));
+            nulls.set(size);
+            return appendValues(List.of());
+        }
+
+        @Override
+        void write(VARIANT cell, RowStore spill) {
+            if (decoder.encode(cell)) spill.writeVector(decoder.view());
+            else write(decoder.decode(cell), spill);
+        }
+
+        @Override
+        void write(Object value, RowStore spill) {
+            if (value == null) spill.writeNull();
+            else spill.writeVector(toValues(value));
+        }
+
+        /**
+         * The generic decoding of the unexpected VARTYPE is converted to strings
+         */
+        private static List<String> toValues(Object value) {
+            if (value instanceof String[] strings) return Arrays.asList(strings);
+            if (value instanceof Object[] objects) return Arrays.stream(objects).map(String::valueOf).toList();
+            return List.of(String.valueOf(value));
+        }
+
+        private long appendValues(List<String> row) {
+            int start = offsets[size];
+            int end = start + row.size();
+            if (values.length < end) values = Arrays.copyOf(values, Math.max(end, values.length * 2));
+            for (int i = 0; i < row.size(); i++) values[start + i] = row.get(i);
+            if (size + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[++size] = end;
+            long bytes = 4 + 8L * row.size();
+            for (String value : row) bytes += estimate(value);
+            return bytes;
+        }
+
+        List<String> view(int row) {
+            if (nulls.get(row)) return List.of();
+            return Collections.unmodifiableList(Arrays.asList(values).subList(offsets[row], offsets[row + 1]));
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : Arrays.copyOfRange(values, offsets[row], offsets[row + 1]);
+        }
+
+        @Override
+        void trim(int size) {
+            if (offsets.length != size + 1) offsets = Arrays.copyOf(offsets, size + 1);
+            if (values.length != offsets[size]) values = Arrays.copyOf(values, offsets[size]);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.jisj.winsearch.sql;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Reusable buffers of one block of rows of {@link WinSearchResultSet}: the cells of the rows are decoded into the flat arrays
+ * of the block by index row * columns + column. The VARIANTs are read in place from the data of the SAFEARRAY
+ * by the VARIANT views created once, so the fetching of the next block copies nothing and allocates only the decoded values.
+ * The values of the multi-valued cells are stored as the dictionary codes in one flat array, as {@link ResultTable} stores them
+ * <p>The blocks are recycled through the small pool shared by all result sets
+ */
+final class RowBlock {
+    /**
+     * Maximum number of the blocks in the pool
+     */
+    static final int POOL_SIZE = 4;
+    private static final ArrayBlockingQueue<RowBlock> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final int VARIANT_SIZE = new VARIANT().size();
+    /**
+     * Values of the cells or the markers of the cells, which values are in {@link #longs} and {@link #codes}
+     */
+    final Object[] cells;
+    final long[] longs;
+    final int[] codes;
+    /**
+     * Codes of the values of the multi-valued cells, the cell keeps the start in {@link #codes} and the number of values in {@link #longs}
+     */
+    int[] vectorCodes = new int[64];
+    private int vectorSize = 0;
+    private final View[] views;
+
+    private RowBlock(int capacity) {
+        cells = new Object[capacity];
+        longs = new long[capacity];
+        codes = new int[capacity];
+        views = new View[capacity];
+    }
+
+    /**
+     * Takes the block from the pool or creates the new one
+     *
+     * @param capacity number of the cells
+     * @return {@link RowBlock}
+     */
+    static RowBlock acquire(int capacity) {
+        RowBlock block = POOL.poll();
+        if (block != null && block.capacity() >= capacity) return block;
+        return new RowBlock(capacity);
+    }
+
+    /**
+     * Returns the block to the pool. The block must not be used after that
+     */
+    void release() {
+        Arrays.fill(cells, null);
+        vectorSize = 0;
+        POOL.offer(this);
+    }
+
+    /**
+     * Number of the cells
+     *
+     * @return capacity
+     */
+    int capacity() {
+        return cells.length;
+    }
+
+    /**
+     * Points the views of the block to the VARIANTs of the SAFEARRAY data. The VARIANTs are not read into the Java fields,
+     * the {@link ColumnDecoder decoders} read the memory
+     *
+     * @param data  data of the SAFEARRAY of VARIANT
+     * @param count number of the cells
+     * @return views of the cells, valid until the next load and while the SAFEARRAY exists
+     */
+    VARIANT[] load(Pointer data, int count) {
+        vectorSize = 0;
+        for (int i = 0; i < count; i++) {
+            if (views[i] == null) views[i] = new View(data.share((long) i * VARIANT_SIZE));
+            else views[i].use(data, i * VARIANT_SIZE);
+        }
+        return views;
+    }
+
+    /**
+     * Appends the codes of the last {@link ColumnDecoder.OfVector#encode(VARIANT) encoded} multi-valued cell
+     *
+     * @param decoder decoder of the column
+     * @return start of the codes in {@link #vectorCodes}
+     */
+    int appendVector(ColumnDecoder.OfVector decoder) {
+        int start = vectorSize;
+        int end = start + decoder.size();
+        if (vectorCodes.length < end) vectorCodes = Arrays.copyOf(vectorCodes, Math.max(end, vectorCodes.length * 2));
+        decoder.copyCodes(vectorCodes, start);
+        vectorSize = end;
+        return start;
+    }
+
+    /**
+     * VARIANT, which memory is replaced by the memory of the next block
+     */
+    private static final class View extends VARIANT {
+        View(Pointer pointer) {
+            super(pointer);
+        }
+
+        void use(Pointer data, int offset) {
+            useMemory(data, offset);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jisj.winsearch.sql;
+
+import java.sql.SQLException;
+
+/**
+ * Interface of the mapper for one row of {@link WinSearchResultSet}
+ *
+ * @param <T> type of mapper result
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Maps the current row
+     *
+     * @param resultSet {@link WinSearchResultSet} positioned on the row
+     * @return mapped value
+     * @throws SQLException when the value reading is failed
+     */
+    T map(WinSearchResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,354 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.utils.OaIdlUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Store of the rows of {@link ResultTable}, that exceeded the heap budget
+ * <p>The rows are written in blocks: {rowCount, rowOffsets[rowCount], rows}. The row is the sequence of the tagged cells,
+ * the numbers are little-endian fixed width, the strings are Latin-1 bytes or UTF-16 chars. The block is stored in one region,
+ * so the cells are read from one {@link ByteBuffer} by absolute get methods. The address of the cell is
+ * {region index, offset in region}. Only the block addresses are kept in heap.
+ * <p>After {@link #finish()} the store is read-only and can be read by many threads. The regions are released on {@link #close()}
+ *
+ * @see SpillFile
+ * @see OffHeapStore
+ */
+abstract class RowStore implements Closeable {
+    /**
+     * Maximum number of rows in the block
+     */
+    static final int BLOCK_ROWS = 4096;
+    /**
+     * Size of the block, after which the block is written
+     */
+    static final int BLOCK_BYTES = 1 << 20;
+    static final byte NULL = 0;
+    static final byte LONG = 1;
+    static final byte DATE = 2;
+    static final byte LATIN1 = 3;
+    static final byte UTF16 = 4;
+    static final byte INT = 5;
+    static final byte DOUBLE = 6;
+    static final byte BOOLEAN = 7;
+    static final byte VECTOR = 8;
+    static final byte SERIALIZED = 9;
+    private ByteBuffer block = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private final int[] rowOffsets = new int[BLOCK_ROWS];
+    private int blockRows = 0;
+    private long[] blockAddresses = new long[16];
+    private int[] blockFirstRows = new int[16];
+    private int blocks = 0;
+    private int size = 0;
+    private ByteBuffer[] regions;
+    private volatile boolean closed = false;
+
+    /**
+     * Writes the block to the store
+     *
+     * @param header {rowCount, rowOffsets[rowCount]}
+     * @param rows   rows of the block
+     * @return address of the block
+     * @throws IOException when the block can not be written
+     */
+    abstract long writeBlock(ByteBuffer header, ByteBuffer rows) throws IOException;
+
+    /**
+     * Returns the regions of the written blocks, called once when all blocks are written
+     *
+     * @return read-only regions
+     * @throws IOException when the regions can not be read
+     */
+    abstract ByteBuffer[] readRegions() throws IOException;
+
+    /**
+     * Releases the regions
+     *
+     * @throws IOException when the regions can not be released
+     */
+    abstract void release() throws IOException;
+
+    /**
+     * Returns the address of the offset in the region
+     */
+    static long address(int region, int offset) {
+        return (long) region << 32 | offset;
+    }
+
+    void writeNull() {
+        ensure(1).put(NULL);
+    }
+
+    void writeLong(long value) {
+        ensure(9).put(LONG).putLong(value);
+    }
+
+    /**
+     * Writes the date
+     *
+     * @param localMillis milliseconds since 1970-01-01 00:00 of the local time
+     */
+    void writeDate(long localMillis) {
+        ensure(9).put(DATE).putLong(localMillis);
+    }
+
+    /**
+     * Writes the decoded value. The strings, numbers and string arrays are written compactly, other values are serialized
+     *
+     * @param value java object | null
+     * @throws UncheckedIOException when the value is not serializable
+     */
+    void writeValue(Object value) {
+        switch (value) {
+            case null -> writeNull();
+            case String str -> writeString(str);
+            case Integer i -> ensure(5).put(INT).putInt(i);
+            case Long l -> writeLong(l);
+            case Double d -> ensure(9).put(DOUBLE).putDouble(d);
+            case Boolean b -> ensure(2).put(BOOLEAN).put((byte) (b ? 1 : 0));
+            case String[] strings -> writeVector(Arrays.asList(strings));
+            default -> writeSerialized(value);
+        }
+    }
+
+    void writeVector(List<String> values) {
+        ensure(5).put(VECTOR).putInt(values.size());
+        for (String value : values) writeString(value);
+    }
+
+    /**
+     * Ends the row, the block is written to the file when it is full
+     *
+     * @throws UncheckedIOException when the block can not be written
+     */
+    void endRow() {
+        size++;
+        if (++blockRows == BLOCK_ROWS || block.position() >= BLOCK_BYTES) flush();
+        rowOffsets[blockRows] = block.position();
+    }
+
+    /**
+     * Writes the last block and makes the store readable
+     *
+     * @throws UncheckedIOException when the block can not be written or the regions can not be read
+     */
+    void finish() {
+        if (blockRows > 0) flush();
+        block = null;
+        try {
+            regions = readRegions();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (ByteBuffer region : regions) region.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Number of rows
+     *
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the cell
+     *
+     * @param row    index of the row, <b>0-based</b>
+     * @param column index of the column, <b>0-based</b>
+     * @return address of the cell
+     * @throws IllegalStateException when the store is closed
+     */
+    long cell(int row, int column) {
+        int index = Arrays.binarySearch(blockFirstRows, 0, blocks, row);
+        if (index < 0) index = -index - 2;
+        long blockAddress = blockAddresses[index];
+        ByteBuffer region = region(blockAddress);
+        int blockStart = offset(blockAddress);
+        int rowIndex = row - blockFirstRows[index];
+        int offset = blockStart + 4 + 4 * region.getInt(blockStart) + region.getInt(blockStart + 4 + 4 * rowIndex);
+        for (int i = 0; i < column; i++) offset = skip(region, offset);
+        return address((int) (blockAddress >>> 32), offset);
+    }
+
+    /**
+     * Returns the tag of the cell
+     *
+     * @param cell address of {@link #cell(int, int)}
+     * @return tag
+     */
+    byte tag(long cell) {
+        return region(cell).get(offset(cell));
+    }
+
+    /**
+     * Reads the value of the {@link #LONG} or {@link #DATE} cell without boxing
+     *
+     * @param cell address of {@link #cell(int, int)}
+     * @return value
+     */
+    long readLong(long cell) {
+        return region(cell).getLong(offset(cell) + 1);
+    }
+
+    /**
+     * Reads the value of the cell
+     *
+     * @param cell address of {@link #cell(int, int)}
+     * @param zone time zone of the local time of the date cells
+     * @return java object, the date is {@link java.util.Date} | null for the empty cell
+     */
+    Object read(long cell, ZoneId zone) {
+        ByteBuffer region = region(cell);
+        int offset = offset(cell);
+        return switch (region.get(offset)) {
+            case NULL -> null;
+            case LONG -> region.getLong(offset + 1);
+            case DATE -> new java.util.Date(OaIdlUtil.localMillisToEpochMillis(region.getLong(offset + 1), zone));
+            case LATIN1, UTF16 -> readString(region, offset);
+            case INT -> region.getInt(offset + 1);
+            case DOUBLE -> region.getDouble(offset + 1);
+            case BOOLEAN -> region.get(offset + 1) != 0;
+            case VECTOR -> readVector(region, offset);
+            case SERIALIZED -> readSerialized(region, offset);
+            default -> throw new IllegalStateException("Unknown tag: " + region.get(offset));
+        };
+    }
+
+    /**
+     * Releases the regions, the store can not be read after that
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        release();
+    }
+
+    private ByteBuffer region(long address) {
+        if (closed) throw new IllegalStateException("Result table is closed");
+        return regions[(int) (address >>> 32)];
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private void writeString(String value) {
+        int length = value.length();
+        boolean latin1 = true;
+        for (int i = 0; i < length && latin1; i++) latin1 = value.charAt(i) < 256;
+        if (latin1) {
+            ensure(5 + length).put(LATIN1).putInt(length).put(value.getBytes(StandardCharsets.ISO_8859_1));
+        } else {
+            ByteBuffer buffer = ensure(5 + 2 * length).put(UTF16).putInt(length);
+            for (int i = 0; i < length; i++) buffer.putChar(value.charAt(i));
+        }
+    }
+
+    private void writeSerialized(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ensure(5 + bytes.size()).put(SERIALIZED).putInt(bytes.size()).put(bytes.toByteArray());
+    }
+
+    private static String readString(ByteBuffer region, int offset) {
+        int length = region.getInt(offset + 1);
+        if (region.get(offset) == LATIN1) {
+            byte[] bytes = new byte[length];
+            region.get(offset + 5, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[2 * length];
+        region.get(offset + 5, bytes);
+        return new String(bytes, StandardCharsets.UTF_16LE);
+    }
+
+    private static String[] readVector(ByteBuffer region, int offset) {
+        String[] values = new String[region.getInt(offset + 1)];
+        offset += 5;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(region, offset);
+            offset = skip(region, offset);
+        }
+        return values;
+    }
+
+    private static Object readSerialized(ByteBuffer region, int offset) {
+        byte[] bytes = new byte[region.getInt(offset + 1)];
+        region.get(offset + 5, bytes);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the offset of the next cell
+     */
+    private static int skip(ByteBuffer region, int offset) {
+        return switch (region.get(offset)) {
+            case NULL -> offset + 1;
+            case BOOLEAN -> offset + 2;
+            case INT -> offset + 5;
+            case LONG, DATE, DOUBLE -> offset + 9;
+            case LATIN1, SERIALIZED -> offset + 5 + region.getInt(offset + 1);
+            case UTF16 -> offset + 5 + 2 * region.getInt(offset + 1);
+            case VECTOR -> {
+                int count = region.getInt(offset + 1);
+                offset += 5;
+                for (int i = 0; i < count; i++) offset = skip(region, offset);
+                yield offset;
+            }
+            default -> throw new IllegalStateException("Unknown tag: " + region.get(offset));
+        };
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (block.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(block.capacity() * 2, block.position() + bytes)).order(ByteOrder.LITTLE_ENDIAN);
+            block.flip();
+            block = grown.put(block);
+        }
+        return block;
+    }
+
+    /**
+     * Writes the block {rowCount, rowOffsets[rowCount], rows}
+     */
+    private void flush() {
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 * blockRows).order(ByteOrder.LITTLE_ENDIAN).putInt(blockRows);
+        for (int i = 0; i < blockRows; i++) header.putInt(rowOffsets[i]);
+        header.flip();
+        block.flip();
+        long address;
+        try {
+            address = writeBlock(header, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (blocks == blockAddresses.length) {
+            blockAddresses = Arrays.copyOf(blockAddresses, blocks * 2);
+            blockFirstRows = Arrays.copyOf(blockFirstRows, blocks * 2);
+        }
+        blockAddresses[blocks] = address;
+        blockFirstRows[blocks++] = size - blockRows;
+        block.clear();
+        blockRows = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jisj.winsearch.sql;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Temporary file of the rows of {@link ResultTable}, that exceeded the heap budget
+ * <p>The block does not cross the border of the {@value #REGION_SIZE} bytes region, so the file is mapped to memory
+ * by the regions. The file is deleted on {@link #close()}, the mapped regions are released by GC
+ */
+final class SpillFile extends RowStore {
+    /**
+     * Size of the memory-mapped region
+     */
+    static final int REGION_SIZE = 1 << 28;
+    private final FileChannel channel;
+    private long position = 0;
+
+    /**
+     * Creates the temporary file in the default temporary-file directory, it is deleted when the file is closed
+     *
+     * @throws IOException when the file can not be created
+     */
+    SpillFile() throws IOException {
+        Path file = Files.createTempFile("winsearch-", ".rows");
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * The block is moved to the next region if it crosses the border
+     */
+    @Override
+    long writeBlock(ByteBuffer header, ByteBuffer rows) throws IOException {
+        long length = header.remaining() + (long) rows.remaining();
+        if (length > REGION_SIZE) throw new IllegalStateException("Block of " + length + " bytes exceeds region size");
+        if (position / REGION_SIZE != (position + length - 1) / REGION_SIZE)
+            position = (position / REGION_SIZE + 1) * REGION_SIZE;
+        long at = position;
+        while (header.hasRemaining()) at += channel.write(header, at);
+        while (rows.hasRemaining()) at += channel.write(rows, at);
+        long address = address((int) (position / REGION_SIZE), (int) (position % REGION_SIZE));
+        position += length;
+        return address;
+    }
+
+    @Override
+    ByteBuffer[] readRegions() throws IOException {
+        ByteBuffer[] regions = new ByteBuffer[(int) ((position + REGION_SIZE - 1) / REGION_SIZE)];
+        for (int i = 0; i < regions.length; i++) {
+            long start = (long) i * REGION_SIZE;
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, position - start));
+        }
+        return regions;
+    }
+
+    @Override
+    void release() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.jisj.winsearch.sql;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Implementation of {@link Array} for the values of multi-valued property, for ex. System.Keywords
+ */
+public class WinSearchArray implements Array {
+    private final String[] values;
+
+    /**
+     * Creates array
+     *
+     * @param values values of the cell
+     */
+    public WinSearchArray(String[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public String getBaseTypeName() {
+        return "VARCHAR";
+    }
+
+    @Override
+    public int getBaseType() {
+        return Types.VARCHAR;
+    }
+
+    /**
+     * Retrieves the values
+     *
+     * @return copy of the values as {@link String}[]
+     */
+    @Override
+    public Object getArray() {
+        return values.clone();
+    }
+
+    /**
+     * Unsupported, the type map is ignored
+     */
+    @Override
+    public Object getArray(Map<String, Class<?>> map) {
+        return getArray();
+    }
+
+    /**
+     * Retrieves the slice of the values
+     *
+     * @param index the index of the first value, <b>1-based</b> as in {@link Array}
+     * @param count the number of values
+     * @return {@link String}[]
+     * @throws WinSearchSQLException when the slice is out of bounds
+     */
+    @Override
+    public Object getArray(long index, int count) throws SQLException {
+        if (index < 1 || count < 0 || index - 1 + count > values.length)
+            throw new WinSearchSQLException("Slice [" + index + ", " + count + "] out of bounds for length " + values.length);
+        return Arrays.copyOfRange(values, (int) index - 1, (int) index - 1 + count);
+    }
+
+    /**
+     * Unsupported, the type map is ignored
+     */
+    @Override
+    public Object getArray(long index, int count, Map<String, Class<?>> map) throws SQLException {
+        return getArray(index, count);
+    }
+
+    /**
+     * Unsupported
+     */
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Unsupported
+     */
+    @Override
+    public ResultSet getResultSet(Map<String, Class<?>> map) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Unsupported
+     */
+    @Override
+    public ResultSet getResultSet(long index, int count) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Unsupported
+     */
+    @Override
+    public ResultSet getResultSet(long index, int count, Map<String, Class<?>> map) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public void free() {
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -16,6 +16,7 @@ import static com.jisj.winsearch.ado.ObjectStateEnum.adStateClosed;
  */
 public class WinSearchConnection implements Connection {
     private final ADOConnection adoConnection;
+    private volatile int networkTimeout = 0;
 
     /**
      * Creates wrapper for {@link ADOConnection}
@@ -345,13 +346,23 @@ public class WinSearchConnection implements Connection {
 
     }
 
+    /**
+     * Sets the time budget of every query on this connection, covering the opening and the fetching of the result.
+     * The statement {@link WinSearchStatement#setQueryTimeout(int) query timeout} is applied, if it is less
+     *
+     * @param executor     not used, the budget is enforced by the statement watchdog
+     * @param milliseconds timeout, 0 for no limit
+     * @throws WinSearchSQLException when the timeout is negative
+     */
     @Override
-    public void setNetworkTimeout(Executor executor, int milliseconds) {
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        if (milliseconds < 0) throw new WinSearchSQLException("Network timeout cannot be negative: " + milliseconds);
+        this.networkTimeout = milliseconds;
     }
 
     @Override
     public int getNetworkTimeout() {
-        return 0;
+        return networkTimeout;
     }
 
     /**
@@ -1,18 +1,33 @@
 package com.jisj.winsearch.sql;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.platform.win32.COM.COMInvokeException;
 import com.sun.jna.platform.win32.OaIdl;
+import com.sun.jna.platform.win32.Variant;
+import com.jisj.winsearch.ado.ADOFields;
 import com.jisj.winsearch.ado.ObjectStateEnum;
 import com.jisj.winsearch.ado.ADORecordset;
+import com.jisj.winsearch.properties.PropertyCatalog;
+import com.jisj.winsearch.properties.PropertyType;
 import com.jisj.winsearch.utils.OaIdlUtil;
+import com.jisj.winsearch.utils.StringDictionary;
 
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -21,9 +36,43 @@ import java.util.stream.StreamSupport;
  * Wrapper for {@link ADORecordset}
  */
 public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
+    /**
+     * Marker of the row cell, which value is stored in the primitive long array
+     */
+    private static final Object LONG_CELL = new Object();
+    /**
+     * Marker of the row cell, which value is stored as the dictionary code
+     */
+    private static final Object CODE_CELL = new Object();
+    /**
+     * Marker of the row cell, which value is stored as the local milliseconds in the primitive long array
+     */
+    private static final Object DATE_CELL = new Object();
+    /**
+     * Marker of the row cell, which values are stored as the dictionary codes in {@link RowBlock#vectorCodes}
+     */
+    private static final Object VECTOR_CELL = new Object();
+    /**
+     * Default number of rows fetched by one call of COM in {@link #toTable()}
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+    private final ZoneId zone = ZoneId.systemDefault();
     private final ADORecordset recordset;
     private final Statement statement;
     private final CurrentRow currentRow = new CurrentRow();
+    private Map<String, Integer> columnIndexes;
+    private String[] columnNames;
+    private PropertyType[] columnTypes;
+    private ColumnDecoder[] decoders;
+    private ColumnDecoder.OfLong[] longDecoders;
+    private ColumnDecoder.OfDictionary[] dictionaryDecoders;
+    private ColumnDecoder.OfDate[] dateDecoders;
+    private ColumnDecoder.OfVector[] vectorDecoders;
+    private int fetchSize = 1;
+    private RowBlock block;
+    private int blockRows = 0;
+    private int blockRow = 0;
+    private long row = 0;
 
     public WinSearchResultSet(ADORecordset adoRecordset) {
         this(adoRecordset, null);
@@ -57,7 +106,7 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
                     if (!resultSet.next()) {
                         if (objectsForClose.length > 0) {
                             for (AutoCloseable closeable : objectsForClose) closeable.close();
-                        } else resultSet.beforeFirst();
+                        } else if (!resultSet.isClosed()) resultSet.beforeFirst();
                         return false;
                     }
                 } catch (Exception e) {
@@ -82,11 +131,236 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return comInvokeExWrap(recordset::isBOF) && comInvokeExWrap(recordset::isEOF);
     }
 
-    private void setCurrentRecord() throws SQLException {
+    /**
+     * Reads the next block of {@link #getFetchSize() fetch size} records and moves the current row to its first record.
+     * The cells are decoded by the column decoders into the reused arrays of {@link RowBlock}.
+     * The values of 64-bit integer and date columns are stored in the primitive long array, the values of low-cardinality string columns
+     * are stored as the codes of the column dictionaries. The values of multi-valued string columns are stored as the codes of the vector decoders
+     * for the block of one record, and as the arrays of the shared values for the larger blocks
+     */
+    private void fetchBlock() throws SQLException {
+        resetBlock();
         assertReadingOutOfBounds();
-        OaIdl.SAFEARRAY ar = comInvokeExWrap(() -> recordset.getRows(1));
-        Object[][] record = (Object[][]) OaIdlUtil.toPrimitiveArray(ar, true);
-        currentRow.setRow(record[0]);
+        readColumns();
+        final int size = fetchSize;
+        int columns = decoders.length;
+        OaIdl.SAFEARRAY ar = comInvokeExWrap(() -> recordset.getRows(size));
+        try {
+            int rows = size == 1 ? 1 : ar.getUBound(0) - ar.getLBound(0) + 1;
+            if (block == null || block.capacity() < rows * columns) {
+                if (block != null) block.release();
+                block = RowBlock.acquire(size * columns);
+            }
+            Object[] cells = block.cells;
+            long[] longs = block.longs;
+            int[] codes = block.codes;
+            Pointer data = ar.accessData();
+            try {
+                Variant.VARIANT[] variants = block.load(data, rows * columns);
+                for (int index = 0; index < rows * columns; index++) {
+                    int i = index % columns;
+                    Variant.VARIANT cell = variants[index];
+                    ColumnDecoder.OfLong longDecoder = longDecoders[i];
+                    ColumnDecoder.OfDictionary dictionaryDecoder = dictionaryDecoders[i];
+                    ColumnDecoder.OfDate dateDecoder = dateDecoders[i];
+                    ColumnDecoder.OfVector vectorDecoder = vectorDecoders[i];
+                    if (vectorDecoder != null) {
+                        if (vectorDecoder.encode(cell)) {
+                            codes[index] = block.appendVector(vectorDecoder);
+                            longs[index] = vectorDecoder.size();
+                            cells[index] = VECTOR_CELL;
+                        } else cells[index] = vectorDecoder.decode(cell);
+                    } else if (dateDecoder != null) {
+                        if (ColumnDecoder.isEmpty(cell)) cells[index] = null;
+                        else {
+                            longs[index] = dateDecoder.decodeLocalMillis(cell);
+                            cells[index] = DATE_CELL;
+                        }
+                    } else if (longDecoder != null) {
+                        if (ColumnDecoder.isEmpty(cell)) cells[index] = null;
+                        else {
+                            longs[index] = longDecoder.decodeLong(cell);
+                            cells[index] = LONG_CELL;
+                        }
+                    } else if (dictionaryDecoder != null) {
+                        int code = dictionaryDecoder.encode(cell);
+                        if (code == StringDictionary.NO_CODE) cells[index] = dictionaryDecoder.decodeMissed(cell);
+                        else {
+                            codes[index] = code;
+                            cells[index] = CODE_CELL;
+                        }
+                    } else cells[index] = decoders[i].decode(cell);
+                }
+            } finally {
+                ar.unaccessData();
+            }
+            blockRows = rows;
+        } finally {
+            ar.destroy();
+        }
+        blockRow = 0;
+        currentRow.setRow(block, 0);
+    }
+
+    /**
+     * Discards the current block, when the cursor of the Recordset is moved. Without the block the position of the ResultSet
+     * is the position of the Recordset
+     */
+    private void resetBlock() {
+        blockRows = 0;
+        blockRow = 0;
+        currentRow.setRow(null, 0);
+    }
+
+    /**
+     * Reads the column names of the Recordset and chooses the {@link ColumnDecoder decoders} by the declared
+     * {@link PropertyType types} from {@link PropertyCatalog}. Called once per query
+     */
+    private void readColumns() throws SQLException {
+        if (decoders != null) return;
+        assertClosedResultSet();
+        Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        ADOFields fields = comInvokeExWrap(recordset::getFields);
+        int count = comInvokeExWrap(fields::getCount);
+        String[] names = new String[count];
+        PropertyType[] types = new PropertyType[count];
+        ColumnDecoder[] columnDecoders = new ColumnDecoder[count];
+        ColumnDecoder.OfLong[] columnLongDecoders = new ColumnDecoder.OfLong[count];
+        ColumnDecoder.OfDictionary[] columnDictionaryDecoders = new ColumnDecoder.OfDictionary[count];
+        ColumnDecoder.OfDate[] columnDateDecoders = new ColumnDecoder.OfDate[count];
+        ColumnDecoder.OfVector[] columnVectorDecoders = new ColumnDecoder.OfVector[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            String name = comInvokeExWrap(() -> fields.getItem(index).getName());
+            names[i] = name;
+            indexes.putIfAbsent(name, i);
+            types[i] = PropertyCatalog.typeOf(name);
+            columnDecoders[i] = ColumnDecoder.of(types[i], PropertyCatalog.isLowCardinality(name));
+            if (columnDecoders[i] instanceof ColumnDecoder.OfLong longDecoder) columnLongDecoders[i] = longDecoder;
+            if (columnDecoders[i] instanceof ColumnDecoder.OfDictionary dictionaryDecoder)
+                columnDictionaryDecoders[i] = dictionaryDecoder;
+            if (columnDecoders[i] instanceof ColumnDecoder.OfDate dateDecoder) columnDateDecoders[i] = dateDecoder;
+            if (columnDecoders[i] instanceof ColumnDecoder.OfVector vectorDecoder) columnVectorDecoders[i] = vectorDecoder;
+        }
+        columnIndexes = indexes;
+        columnNames = names;
+        columnTypes = types;
+        longDecoders = columnLongDecoders;
+        dictionaryDecoders = columnDictionaryDecoders;
+        dateDecoders = columnDateDecoders;
+        vectorDecoders = columnVectorDecoders;
+        decoders = columnDecoders;
+    }
+
+    /**
+     * Returns declared type of the column
+     *
+     * @param columnIndex index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @return {@link PropertyType} | {@link PropertyType#ANY} if the column property is not in {@link PropertyCatalog}
+     * @throws WinSearchSQLException when the ResultSet is closed or the index is out of bounds
+     */
+    public PropertyType getColumnType(int columnIndex) throws SQLException {
+        readColumns();
+        if (columnIndex < 0 || columnIndex >= columnTypes.length)
+            throw new WinSearchSQLException("Index " + columnIndex + " out of bounds for length of record " + columnTypes.length);
+        return columnTypes[columnIndex];
+    }
+
+    /**
+     * Materializes all rows of this ResultSet into the disconnected {@link ResultTable} and closes the Recordset.
+     * Overloaded method {@link #toTable(int)} with the block of {@value #DEFAULT_BLOCK_SIZE} rows
+     *
+     * @return {@link ResultTable}
+     * @throws SQLException when the ResultSet is closed or the statement was cancelled
+     */
+    public ResultTable toTable() throws SQLException {
+        return toTable(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Materializes all rows of this ResultSet into the disconnected {@link ResultTable} in heap and closes the Recordset.
+     * Overloaded method {@link #toTable(int, long, ResultTable.Spill)} without the heap budget
+     *
+     * @param blockSize number of rows fetched by one call of COM
+     * @return {@link ResultTable}
+     * @throws SQLException when the ResultSet is closed or the statement was cancelled
+     */
+    public ResultTable toTable(int blockSize) throws SQLException {
+        return toTable(blockSize, Long.MAX_VALUE, ResultTable.Spill.FILE);
+    }
+
+    /**
+     * Materializes all rows of this ResultSet into the disconnected {@link ResultTable}, the rows over the heap budget
+     * are spilled to the temporary file. Overloaded method {@link #toTable(int, long, ResultTable.Spill)}
+     *
+     * @param blockSize  number of rows fetched by one call of COM
+     * @param heapBudget estimated heap size of the rows in bytes, after which the rows are spilled to disk
+     * @return {@link ResultTable}
+     * @throws SQLException when the ResultSet is closed, the statement was cancelled or the temporary file can not be written
+     */
+    public ResultTable toTable(int blockSize, long heapBudget) throws SQLException {
+        return toTable(blockSize, heapBudget, ResultTable.Spill.FILE);
+    }
+
+    /**
+     * Materializes all rows of this ResultSet into the disconnected {@link ResultTable} and closes the Recordset,
+     * so the connection is not held while the result is processed. The rows are fetched from the current position
+     * by {@link ADORecordset#getRows(int)} in blocks, the cells are decoded by the column decoders as in {@link #next()}
+     * <p>When the estimated heap size of the rows exceeds the heap budget, the next rows are stored compactly
+     * in the temporary file or in the native memory, see {@link ResultTable.Spill}. With the zero budget all rows are stored
+     * out of the Java heap. The spilled table should be {@link ResultTable#close() closed} to release the store
+     *
+     * @param blockSize  number of rows fetched by one call of COM
+     * @param heapBudget estimated heap size of the rows in bytes, after which the rows are spilled
+     * @param spill      store of the spilled rows
+     * @return immutable {@link ResultTable}, that can be shared between threads
+     * @throws SQLException              when the ResultSet is closed, the statement was {@link WinSearchStatement#cancel() cancelled}
+     *                                   or the temporary file can not be written
+     * @throws WinSearchTimeoutException when the statement exceeded the time budget
+     * @throws IllegalArgumentException  when the block size is not positive or the heap budget is negative
+     */
+    public ResultTable toTable(int blockSize, long heapBudget, ResultTable.Spill spill) throws SQLException {
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        readColumns();
+        resetBlock();
+        ResultTable.Builder builder = new ResultTable.Builder(columnNames, columnTypes, decoders, size(), heapBudget, spill);
+        RowBlock tableBlock = null;
+        try {
+            if (!isEmpty()) {
+                if (isBeforeFirst()) comInvokeExWrap(recordset::moveNext);
+                while (!isAfterLast()) {
+                    if (statement instanceof WinSearchStatement st) {
+                        if (st.isTimedOut()) throw st.timeoutException();
+                        if (st.isCancelled()) throw new WinSearchSQLException("Statement is cancelled");
+                    }
+                    OaIdl.SAFEARRAY ar = comInvokeExWrap(() -> recordset.getRows(blockSize));
+                    try {
+                        int rows = ar.getUBound(0) - ar.getLBound(0) + 1;
+                        int columns = decoders.length;
+                        if (tableBlock == null) tableBlock = RowBlock.acquire(blockSize * columns);
+                        Pointer data = ar.accessData();
+                        try {
+                            Variant.VARIANT[] cells = tableBlock.load(data, rows * columns);
+                            for (int r = 0; r < rows; r++) builder.appendRow(cells, r * columns);
+                        } finally {
+                            ar.unaccessData();
+                        }
+                    } finally {
+                        ar.destroy();
+                    }
+                }
+            }
+            return builder.build();
+        } catch (UncheckedIOException e) {
+            builder.discard();
+            throw new WinSearchSQLException(e.getCause());
+        } catch (SQLException | RuntimeException e) {
+            builder.discard();
+            throw e;
+        } finally {
+            if (tableBlock != null) tableBlock.release();
+            close();
+        }
     }
 
     private void assertReadingOutOfBounds() throws SQLException {
@@ -100,19 +374,50 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
 
     /**
      * Moves the cursor forward one row from its current position
+     * <p>If the statement was {@link WinSearchStatement#cancel() cancelled}, closes the ResultSet and returns false
+     *
+     * @throws WinSearchTimeoutException when the statement exceeded the time budget, the ResultSet is closed
      */
     @Override
     public boolean next() throws SQLException {
+        if (statement instanceof WinSearchStatement st) {
+            if (st.isTimedOut()) {
+                close();
+                throw st.timeoutException();
+            }
+            if (st.isCancelled()) {
+                close();
+                return false;
+            }
+        }
         assertClosedResultSet();
-        if (isEmpty() || isAfterLast()) return false;
-        if (isBeforeFirst()) comInvokeExWrap(recordset::moveNext);
-        setCurrentRecord();
+        if (blockRow + 1 < blockRows) {
+            blockRow++;
+            row++;
+            currentRow.setRow(block, blockRow * decoders.length);
+            return true;
+        }
+        resetBlock();
+        if (isEmpty() || isAfterLast()) {
+            if (statement instanceof WinSearchStatement st) st.finish(this);
+            return false;
+        }
+        if (isBeforeFirst()) {
+            comInvokeExWrap(recordset::moveNext);
+            row = 0;
+        }
+        fetchBlock();
+        row++;
         return true;
     }
 
     @Override
     public void close() throws SQLException {
         if (isClosed()) return;
+        resetBlock();
+        if (block != null) block.release();
+        block = null;
+        if (statement instanceof WinSearchStatement st) st.finish(this);
         comInvokeExWrap(recordset::close);
     }
 
@@ -149,9 +454,17 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return getObject(columnIndex, Integer.class);
     }
 
+    /**
+     * Retrieves the value of the 64-bit integer column, for ex. {@link com.jisj.winsearch.properties.Core#SystemSize System.Size},
+     * without boxing
+     *
+     * @param columnIndex index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @return value | 0 for the empty cell
+     * @throws SQLException when the cursor is out of the records or the index is out of bounds
+     */
     @Override
-    public long getLong(int columnIndex) {
-        return 0;
+    public long getLong(int columnIndex) throws SQLException {
+        return currentRow.getCellLong(columnIndex);
     }
 
     @Override
@@ -188,11 +501,15 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     /**
-     * Unsupported Use {@link #getDate(int)}
+     * Retrieves the value of the date column
+     *
+     * @param columnIndex index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @return {@link Timestamp} | null for the empty cell
+     * @throws SQLException when the cursor is out of the records or the index is out of bounds
      */
     @Override
-    public Timestamp getTimestamp(int columnIndex) {
-        return null;
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        return getObject(columnIndex, Timestamp.class);
     }
 
     /**
@@ -214,8 +531,8 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     @Override
-    public String getString(String columnLabel) {
-        return "";
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
     }
 
     @Override
@@ -235,12 +552,12 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
 
     @Override
     public int getInt(String columnLabel) throws SQLException {
-        return 0;
+        return getInt(findColumn(columnLabel));
     }
 
     @Override
-    public long getLong(String columnLabel) {
-        return 0;
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
     }
 
     @Override
@@ -264,8 +581,8 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     @Override
-    public Date getDate(String columnLabel) {
-        return null;
+    public Date getDate(String columnLabel) throws SQLException {
+        return getDate(findColumn(columnLabel));
     }
 
     @Override
@@ -274,8 +591,8 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     @Override
-    public Timestamp getTimestamp(String columnLabel) {
-        return null;
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
     }
 
     @Override
@@ -348,7 +665,7 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
 
     @Override
     public Object getObject(String columnLabel) throws SQLException {
-        return null;
+        return getObject(findColumn(columnLabel));
     }
 
     @Override
@@ -361,9 +678,20 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return null;
     }
 
+    /**
+     * Maps the column label to its index. The labels are the field names of the Recordset, for ex. System.FileName,
+     * compared case-insensitive. The map is read from the Recordset once
+     *
+     * @param columnLabel column name
+     * @return index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @throws WinSearchSQLException when the column is not in the result set
+     */
     @Override
-    public int findColumn(String columnLabel) {
-        return 0;
+    public int findColumn(String columnLabel) throws SQLException {
+        readColumns();
+        Integer index = columnIndexes.get(columnLabel);
+        if (index == null) throw new WinSearchSQLException("Column not found: " + columnLabel);
+        return index;
     }
 
 
@@ -387,14 +715,30 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return null;
     }
 
+    /**
+     * Retrieves whether the cursor is before the first row. The Recordset is positioned after the fetched block,
+     * so the position of the Recordset is used only when no row is current
+     *
+     * @return true if the cursor is before the first row
+     * @throws SQLException when ResultSet is closed
+     */
     @Override
     public boolean isBeforeFirst() throws SQLException {
-        return comInvokeExWrap(recordset::isBOF);
+        assertClosedResultSet();
+        return blockRows == 0 && comInvokeExWrap(recordset::isBOF);
     }
 
+    /**
+     * Retrieves whether the cursor is after the last row. The Recordset is positioned after the fetched block,
+     * so the position of the Recordset is used only when no row is current
+     *
+     * @return true if the cursor is after the last row
+     * @throws SQLException when ResultSet is closed
+     */
     @Override
     public boolean isAfterLast() throws SQLException {
-        return comInvokeExWrap(recordset::isEOF);
+        assertClosedResultSet();
+        return blockRows == 0 && comInvokeExWrap(recordset::isEOF);
     }
 
     /**
@@ -418,7 +762,8 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         if (isEmpty()) return;
         comInvokeExWrap(recordset::moveFirst);
         comInvokeExWrap(recordset::movePrevious);
-        currentRow.setRow(null);
+        resetBlock();
+        row = 0;
     }
 
     /**
@@ -430,16 +775,33 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     /**
-     * Moves the cursor to the first row in this ResultSet object
+     * Moves the cursor to the first row in this ResultSet object and fetches the block of rows from it
      *
-     * @return true if absolute position is 1
+     * @return true if the cursor is on the first row | false if the ResultSet is empty
      * @throws SQLException when ResultSet is closed
      */
     @Override
     public boolean first() throws SQLException {
-        assertClosedResultSet();
-        recordset.moveFirst();
-        return recordset.absolutePosition() == 1;
+        if (isEmpty()) return false;
+        return moveTo(1, 1);
+    }
+
+    /**
+     * Positions the Recordset to the start row, fetches the block of rows from it and moves the cursor to the target row of the block
+     *
+     * @param target number of the row, from 1
+     * @param start  number of the first row of the block, not after the target row
+     * @return true
+     */
+    private boolean moveTo(long target, long start) throws SQLException {
+        resetBlock();
+        comInvokeExWrap(recordset::moveFirst);
+        if (start > 1) comInvokeExWrap(() -> recordset.move(start - 1));
+        fetchBlock();
+        blockRow = (int) Math.min(target - start, blockRows - 1);
+        currentRow.setRow(block, blockRow * decoders.length);
+        row = start + blockRow;
+        return true;
     }
 
     /**
@@ -451,14 +813,15 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     /**
-     * Unsupported. Retrieves the current row number
+     * Retrieves the current row number
      *
      * @return the current row number; 0 if there is no current row
      * @throws SQLException called on a closed result set
      */
     @Override
     public int getRow() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        assertClosedResultSet();
+        return blockRows == 0 ? 0 : (int) row;
     }
 
     @Override
@@ -471,11 +834,28 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return false;
     }
 
+    /**
+     * Moves the cursor to the previous row. The row of the current block is read without COM calls,
+     * otherwise the block ending with the previous row is fetched
+     *
+     * @return true if the cursor is on a row | false if it is before the first row
+     * @throws SQLException when ResultSet is closed
+     */
     @Override
     public boolean previous() throws SQLException {
         assertClosedResultSet();
-        recordset.movePrevious();
-        return getRow() > 0 || isBeforeFirst();
+        if (blockRow > 0) {
+            blockRow--;
+            row--;
+            currentRow.setRow(block, blockRow * decoders.length);
+            return true;
+        }
+        long target = blockRows == 0 ? (isAfterLast() ? size() : 0) : row - 1;
+        if (target < 1) {
+            beforeFirst();
+            return false;
+        }
+        return moveTo(target, Math.max(1, target - fetchSize + 1));
     }
 
     @Override
@@ -488,14 +868,27 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return FETCH_FORWARD;
     }
 
+    /**
+     * Sets the number of records fetched by one call of COM in {@link #next()}. The records of the block are decoded into
+     * the reused arrays, recycled through the small pool, and the next rows of the block are read without COM calls
+     * and without allocation beyond the decoded values
+     * <p>With the fetch size greater than 1 the Recordset is positioned after the block, the position of the ResultSet is kept
+     * by the block: {@link #first()} and {@link #previous()} out of the block fetch the block again from the target row.
+     * The new fetch size is used for the next block
+     *
+     * @param rows number of records, 0 for the default of 1 record
+     * @throws SQLException when the ResultSet is closed or the number is negative
+     */
     @Override
     public void setFetchSize(int rows) throws SQLException {
-
+        assertClosedResultSet();
+        if (rows < 0) throw new WinSearchSQLException("Fetch size must not be negative: " + rows);
+        fetchSize = Math.max(1, rows);
     }
 
     @Override
     public int getFetchSize() throws SQLException {
-        return 0;
+        return fetchSize;
     }
 
     @Override
@@ -735,9 +1128,44 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return null;
     }
 
+    /**
+     * Retrieves the values of the multi-valued column, for ex. {@link com.jisj.winsearch.properties.Core#SystemKeywords System.Keywords}
+     *
+     * @param columnIndex index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @return {@link WinSearchArray} | null for the empty cell
+     * @throws SQLException when the cursor is out of the records or the index is out of bounds
+     * @see #getValues(int)
+     */
     @Override
-    public Array getArray(int columnIndex) {
-        return null;
+    public Array getArray(int columnIndex) throws SQLException {
+        Object obj = getObject(columnIndex);
+        if (obj == null) return null;
+        if (obj instanceof String[] values) return new WinSearchArray(values);
+        throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + columnIndex);
+    }
+
+    /**
+     * Returns the view of the values of the multi-valued column without copying. The values are the shared instances of
+     * the column dictionary. The view is valid until the cursor is moved, then it throws {@link ConcurrentModificationException}
+     *
+     * @param columnIndex index of the column, <b>0-based</b> as in {@link #getObject(int)}
+     * @return unmodifiable list of the values | empty list for the empty cell | list of one value for the single-valued column
+     * @throws SQLException when the cursor is out of the records or the index is out of bounds
+     */
+    public List<String> getValues(int columnIndex) throws SQLException {
+        return currentRow.getCellValues(columnIndex);
+    }
+
+    /**
+     * Returns the view of the values of the multi-valued column without copying
+     *
+     * @param columnLabel column name
+     * @return unmodifiable list of the values
+     * @throws SQLException when the column is not found or the cursor is out of the records
+     * @see #getValues(int)
+     */
+    public List<String> getValues(String columnLabel) throws SQLException {
+        return getValues(findColumn(columnLabel));
     }
 
     @Override
@@ -756,8 +1184,8 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
     }
 
     @Override
-    public Array getArray(String columnLabel) {
-        return null;
+    public Array getArray(String columnLabel) throws SQLException {
+        return getArray(findColumn(columnLabel));
     }
 
     /**
@@ -1068,7 +1496,7 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
 
     @Override
     public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-        return null;
+        return getObject(findColumn(columnLabel), type);
     }
 
     /**
@@ -1119,6 +1547,53 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         return streamOf(this, closeObjects);
     }
 
+    /**
+     * Creates {@link Flow.Publisher} of the rows of this ResultSet. Only one subscriber is supported
+     * <p>The rows are fetched and mapped on the COM executor on subscriber demand, the ResultSet and closeObjects are closed
+     * when the subscription is completed or cancelled
+     *
+     * @param mapper           {@link RowMapper} for one row
+     * @param comExecutor      executor of the thread that created this ResultSet
+     * @param deliveryExecutor executor for subscriber signals
+     * @param closeObjects     Optional. Objects with implemented interface {@link AutoCloseable} that should be closed after the ResultSet
+     * @param <T>              type of mapped rows
+     * @return {@link ResultSetPublisher} object
+     */
+    public <T> Flow.Publisher<T> publisher(RowMapper<T> mapper, Executor comExecutor, Executor deliveryExecutor, AutoCloseable... closeObjects) {
+        final AtomicBoolean subscribed = new AtomicBoolean();
+        final Flow.Publisher<T> publisher = new ResultSetPublisher<>(objects -> {
+            beforeFirst();
+            return this;
+        }, mapper, comExecutor, deliveryExecutor, closeObjects);
+        return subscriber -> {
+            if (subscribed.getAndSet(true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("ResultSet publisher supports only one subscriber"));
+            } else publisher.subscribe(subscriber);
+        };
+    }
+
+    /**
+     * Overloaded method {@link #publisher(RowMapper, Executor, Executor, AutoCloseable...)} with signal delivery in {@link ForkJoinPool#commonPool()}
+     *
+     * @param mapper       {@link RowMapper} for one row
+     * @param comExecutor  executor of the thread that created this ResultSet
+     * @param closeObjects Optional. Objects that should be closed after the ResultSet
+     * @param <T>          type of mapped rows
+     * @return {@link ResultSetPublisher} object
+     */
+    public <T> Flow.Publisher<T> publisher(RowMapper<T> mapper, Executor comExecutor, AutoCloseable... closeObjects) {
+        return publisher(mapper, comExecutor, ForkJoinPool.commonPool(), closeObjects);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> Optional<T> getOptional(int columnIndex) {
@@ -1129,6 +1604,12 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         }
     }
 
+    @Override
+    public Object[] toArray() throws SQLException {
+        assertClosedResultSet();
+        return currentRow.toArray();
+    }
+
     @FunctionalInterface
     interface ThrowingSupplier<T, E extends Exception> {
         /**
@@ -1178,32 +1659,159 @@ public class WinSearchResultSet implements ResultSet, ResultSetEnrich {
         }
     }
 
+    /**
+     * Converts the date to the type: {@link LocalDateTime}, {@link Instant}, {@link OffsetDateTime},
+     * {@link Timestamp}, {@link Date java.sql.Date} or {@link java.util.Date}
+     *
+     * @param localMillis milliseconds since 1970-01-01 00:00 of the local time
+     * @param type        class of the value
+     * @param zone        time zone of the local time
+     * @return date of the type | null for other types
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T convertDate(long localMillis, Class<T> type, ZoneId zone) {
+        if (type == LocalDateTime.class) return (T) OaIdlUtil.localMillisToLocalDateTime(localMillis);
+        if (type == OffsetDateTime.class) {
+            LocalDateTime local = OaIdlUtil.localMillisToLocalDateTime(localMillis);
+            return (T) local.atOffset(zone.getRules().getOffset(local));
+        }
+        long epochMillis = OaIdlUtil.localMillisToEpochMillis(localMillis, zone);
+        if (type == Instant.class) return (T) Instant.ofEpochMilli(epochMillis);
+        if (type == Timestamp.class) return (T) new Timestamp(epochMillis);
+        if (type == Date.class) return (T) new Date(epochMillis);
+        if (type == java.util.Date.class) return (T) new java.util.Date(epochMillis);
+        return null;
+    }
+
+    /**
+     * Converts the date to the local milliseconds
+     *
+     * @param date {@link java.util.Date}
+     * @param zone time zone of the local time
+     * @return milliseconds since 1970-01-01 00:00 of the local time
+     */
+    static long toLocalMillis(java.util.Date date, ZoneId zone) {
+        long epochMillis = date.getTime();
+        return epochMillis + zone.getRules().getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+    }
+
     private class CurrentRow {
 
 
-        private Object[] row = null;
+        private RowBlock block = null;
+        private int base = 0;
+        /**
+         * Number of the moves of the cursor, the {@link VectorView views} of the previous rows are invalid
+         */
+        private int generation = 0;
 
-        public void setRow(Object[] row) {
-            this.row = row;
+        public void setRow(RowBlock block, int base) {
+            this.block = block;
+            this.base = base;
+            generation++;
         }
 
         public Object getCellObject(int columnIndex) throws SQLException {
-            if (row == null) assertReadingOutOfBounds();
+            assertRow();
+            assertIndex(columnIndex);
+            return cell(columnIndex);
+        }
+
+        public long getCellLong(int columnIndex) throws SQLException {
+            assertRow();
             assertIndex(columnIndex);
-            return row[columnIndex];
+            if (block.cells[base + columnIndex] == LONG_CELL) return block.longs[base + columnIndex];
+            Object obj = cell(columnIndex);
+            if (obj == null) return 0;
+            if (obj instanceof Number number) return number.longValue();
+            throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + columnIndex);
         }
 
         @SuppressWarnings("unchecked")
         public <T> T getCellObject(int columnIndex, Class<T> type) throws SQLException {
-            Object obj = getCellObject(columnIndex);
+            assertRow();
+            assertIndex(columnIndex);
+            if (block.cells[base + columnIndex] == DATE_CELL) {
+                T value = convertDate(block.longs[base + columnIndex], type, zone);
+                if (value != null) return value;
+            }
+            Object obj = cell(columnIndex);
+            if (obj == null) return null;
             if (obj.getClass() == type) return (T) obj;
-            if (type == Date.class && obj instanceof java.util.Date date) return (T) new Date(date.getTime());
+            if (obj instanceof java.util.Date date) {
+                T value = convertDate(toLocalMillis(date, zone), type, zone);
+                if (value != null) return value;
+            }
             throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + columnIndex);
         }
 
+        public List<String> getCellValues(int columnIndex) throws SQLException {
+            assertRow();
+            assertIndex(columnIndex);
+            Object obj = block.cells[base + columnIndex];
+            if (obj == VECTOR_CELL) return new VectorView(columnIndex);
+            obj = cell(columnIndex);
+            if (obj == null) return List.of();
+            if (obj instanceof String[] values) return Collections.unmodifiableList(Arrays.asList(values));
+            if (obj instanceof String value) return List.of(value);
+            throw new IllegalStateException("Unexpected type: " + obj.getClass() + " for column " + columnIndex);
+        }
+
+        public Object[] toArray() throws SQLException {
+            assertRow();
+            Object[] array = new Object[decoders.length];
+            for (int i = 0; i < array.length; i++) array[i] = cell(i);
+            return array;
+        }
+
+        private Object cell(int columnIndex) {
+            int index = base + columnIndex;
+            Object obj = block.cells[index];
+            if (obj == LONG_CELL) return block.longs[index];
+            if (obj == DATE_CELL) return new java.util.Date(OaIdlUtil.localMillisToEpochMillis(block.longs[index], zone));
+            if (obj == VECTOR_CELL) {
+                String[] values = new String[(int) block.longs[index]];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = vectorDecoders[columnIndex].get(block.vectorCodes[block.codes[index] + i]);
+                return values;
+            }
+            if (obj == CODE_CELL) return dictionaryDecoders[columnIndex].get(block.codes[index]);
+            return obj;
+        }
+
+        /**
+         * View of the values of the multi-valued cell of the current row, reads the codes of the block
+         */
+        private final class VectorView extends AbstractList<String> implements RandomAccess {
+            private final int columnIndex;
+            private final int viewGeneration = generation;
+
+            private VectorView(int columnIndex) {
+                this.columnIndex = columnIndex;
+            }
+
+            @Override
+            public String get(int index) {
+                Objects.checkIndex(index, size());
+                return vectorDecoders[columnIndex].get(block.vectorCodes[block.codes[base + columnIndex] + index]);
+            }
+
+            @Override
+            public int size() {
+                if (viewGeneration != generation) throw new ConcurrentModificationException("The cursor was moved to the next row");
+                return (int) block.longs[base + columnIndex];
+            }
+        }
+
+        private void assertRow() throws SQLException {
+            if (block != null) return;
+            assertReadingOutOfBounds();
+            throw new WinSearchSQLException("No current row");
+        }
+
         private void assertIndex(int columnIndex) throws WinSearchSQLException {
-            if (columnIndex >= row.length)
-                throw new WinSearchSQLException("Index " + columnIndex + " out of bounds for length of record " + row.length);
+            if (columnIndex < 0 || columnIndex >= decoders.length)
+                throw new WinSearchSQLException("Index " + columnIndex + " out of bounds for length of record " + decoders.length);
         }
 
     }
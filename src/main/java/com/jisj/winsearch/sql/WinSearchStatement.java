@@ -1,43 +1,157 @@
 package com.jisj.winsearch.sql;
 
 import com.sun.jna.platform.win32.COM.COMInvokeException;
+import com.jisj.winsearch.QueryBuilder;
+import com.jisj.winsearch.ado.ADOConnection;
 import com.jisj.winsearch.ado.COMFactory;
 import com.jisj.winsearch.ado.ADORecordset;
 import com.jisj.winsearch.ado.CursorTypeEnum;
 import com.jisj.winsearch.ado.LockTypeEnum;
+import com.jisj.winsearch.ado.ObjectStateEnum;
 
 import java.sql.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Implementation of {@link Statement}
  */
 public class WinSearchStatement implements Statement {
+    /**
+     * Watchdog of the query time budgets, one daemon thread for all statements. COM objects are bound to the thread that
+     * created them, so on expiry the watchdog marks the statement as timed out and the owner thread aborts it: the waiting
+     * {@link #executeQuery(String)} cancels the opening by Recordset.Cancel, the fetching is closed by the next call
+     * of {@link WinSearchResultSet#next()} or between the blocks of {@link WinSearchResultSet#toTable()}.
+     * One running call of GetRows can not be interrupted
+     */
+    private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform()
+            .name("winsearch-watchdog")
+            .daemon(true)
+            .factory());
+
+    static {
+        WATCHDOG.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Interval of the checks of the cancel while the query is executed asynchronously
+     */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long EXECUTING = ObjectStateEnum.adStateConnecting.getValue() | ObjectStateEnum.adStateExecuting.getValue();
+
     private final WinSearchConnection connection;
+    private final Object lock = new Object();
     private WinSearchResultSet resultSet;
     private boolean closed = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean timedOut = false;
+    private volatile boolean executing = false;
+    private ScheduledFuture<?> watchdog;
+    private int queryTimeout = 0;
+    private int maxRows = 0;
+    private int fetchSize = 0;
+    private long budgetMillis;
     private String query;
 
     public WinSearchStatement(WinSearchConnection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Executes the SQL query
+     * <p>When {@link #setMaxRows(int) max rows} is set, the limit is pushed to the query as TOP clause and to the Recordset
+     * MaxRecords property. When the time budget is set, the opening is cancelled when the watchdog expires, the ADO CommandTimeout
+     * of whole seconds is kept as the limit of the provider. The CommandTimeout of the shared ADO connection is restored after the opening
+     *
+     * @param sql SQL query
+     * @return {@link WinSearchResultSet}
+     * @throws WinSearchSQLException     when the statement was {@link #cancel() cancelled} before the first execution or during the opening,
+     *                                   or the query is faulty
+     * @throws WinSearchTimeoutException when the opening exceeds the time budget
+     */
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
+        if (maxRows > 0) sql = QueryBuilder.withMaxRows(sql, maxRows);
+        synchronized (lock) {
+            boolean pending = cancelled && query == null;
+            this.query = sql;
+            if (pending) throw new WinSearchSQLException("Statement is cancelled");
+            cancelled = false;
+            executing = true;
+            resultSet = null;
+        }
+        startWatchdog();
         ADORecordset rs = COMFactory.newADORecordSet();
-        this.query = sql;
         try {
-            rs.open(sql, connection.getAdoConnection(),
-                    CursorTypeEnum.adOpenStatic,
-                    LockTypeEnum.adLockReadOnly,
-                    ADORecordset.adCmdUnspecified);
+            if (maxRows > 0) rs.setMaxRecords(maxRows);
+            ADOConnection adoConnection = connection.getAdoConnection();
+            //the ADO connection is shared by the statements, so its timeout is restored after the opening
+            int commandTimeout = adoConnection.getCommandTimeout();
+            if (budgetMillis > 0)
+                adoConnection.setCommandTimeout((int) Math.max(1, (budgetMillis + 999) / 1000));
+            try {
+                rs.open(sql, adoConnection,
+                        CursorTypeEnum.adOpenStatic,
+                        LockTypeEnum.adLockReadOnly,
+                        ADORecordset.adCmdText | ADORecordset.adAsyncExecute);
+            } finally {
+                if (budgetMillis > 0) adoConnection.setCommandTimeout(commandTimeout);
+            }
+            awaitExecution(rs);
         } catch (COMInvokeException e) {
+            abort();
+            if (timedOut) throw timeoutException();
+            if (cancelled) throw new WinSearchSQLException("Statement is cancelled");
             if (e.getHresult().intValue() == 0x80020009)
                 throw new WinSearchSQLException("Error of retrieving data from SQL: possibly faulty SQL query\n" + sql);
             throw new RuntimeException(e);
         }
+        if (timedOut || cancelled) {
+            abort();
+            if (rs.state() != ObjectStateEnum.adStateClosed.getValue()) rs.close();
+            if (timedOut) throw timeoutException();
+            throw new WinSearchSQLException("Statement is cancelled");
+        }
+        //the error of the asynchronous execution leaves the Recordset closed
+        if (rs.state() == ObjectStateEnum.adStateClosed.getValue()) {
+            abort();
+            throw new WinSearchSQLException("Error of retrieving data from SQL: possibly faulty SQL query\n" + sql);
+        }
         if (!rs.isBOF()) rs.movePrevious();
-        resultSet = new WinSearchResultSet(rs, this);
-        return resultSet;
+        WinSearchResultSet result = new WinSearchResultSet(rs, this);
+        result.setFetchSize(fetchSize);
+        synchronized (lock) {
+            resultSet = result;
+        }
+        return result;
+    }
+
+    /**
+     * Ends the execution, which did not give the result
+     */
+    private void abort() {
+        stopWatchdog();
+        synchronized (lock) {
+            executing = false;
+        }
+    }
+
+    /**
+     * Waits for the asynchronous execution of the query on the owner thread of the Recordset.
+     * When the statement is {@link #cancel() cancelled} or exceeds the time budget, the execution is cancelled on the indexer by Recordset.Cancel
+     *
+     * @param rs Recordset opened with {@link ADORecordset#adAsyncExecute}
+     */
+    private void awaitExecution(ADORecordset rs) {
+        while ((rs.state() & EXECUTING) != 0) {
+            if (cancelled || timedOut) {
+                rs.cancel();
+                return;
+            }
+            LockSupport.parkNanos(POLL_NANOS);
+        }
     }
 
     /**
@@ -56,6 +170,10 @@ public class WinSearchStatement implements Statement {
     @Override
     public void close() throws SQLException {
         this.closed = true;
+        synchronized (lock) {
+            executing = false;
+        }
+        stopWatchdog();
         if (resultSet != null) resultSet.close();
     }
 
@@ -71,12 +189,19 @@ public class WinSearchStatement implements Statement {
 
     @Override
     public int getMaxRows() {
-        return 0;
+        return maxRows;
     }
 
+    /**
+     * Sets the limit for the maximum number of rows of the next queries
+     *
+     * @param max the new max rows limit; zero means there is no limit
+     * @throws WinSearchSQLException when the limit is negative
+     */
     @Override
-    public void setMaxRows(int max) {
-
+    public void setMaxRows(int max) throws SQLException {
+        if (max < 0) throw new WinSearchSQLException("Max rows cannot be negative: " + max);
+        this.maxRows = max;
     }
 
     @Override
@@ -85,17 +210,97 @@ public class WinSearchStatement implements Statement {
 
     @Override
     public int getQueryTimeout() {
-        return 0;
+        return queryTimeout;
     }
 
+    /**
+     * Sets the time budget of the next queries, covering the opening and the fetching of the result.
+     * The connection {@link WinSearchConnection#setNetworkTimeout(java.util.concurrent.Executor, int) network timeout} is applied, if it is less
+     * <p>When the budget is exceeded during the opening, the execution is cancelled and {@link #executeQuery(String)}
+     * throws {@link WinSearchTimeoutException}. During the fetching, {@link WinSearchResultSet#next()} closes the Recordset and throws it
+     *
+     * @param seconds timeout, 0 for no limit
+     * @throws WinSearchSQLException when the timeout is negative
+     */
     @Override
-    public void setQueryTimeout(int seconds) {
-
+    public void setQueryTimeout(int seconds) throws SQLException {
+        if (seconds < 0) throw new WinSearchSQLException("Query timeout cannot be negative: " + seconds);
+        this.queryTimeout = seconds;
     }
 
+    /**
+     * Cancels the current query. Can be called from any thread.
+     * <p>COM objects are bound to the thread that created them, so the {@link ADORecordset} is not touched here, the cancel
+     * is cooperative: the query is opened asynchronously and the waiting {@link #executeQuery(String)} cancels the execution
+     * on the indexer by Recordset.Cancel and throws {@link WinSearchSQLException}. After the opening, the next call of
+     * {@link WinSearchResultSet#next()} on the owner thread closes the recordset and returns false.
+     * If no query is executed yet, the cancel is pending and the first {@link #executeQuery(String)} throws {@link WinSearchSQLException}.
+     * When the result of the last query is already fetched or closed, there is nothing to cancel
+     */
     @Override
     public void cancel() {
+        synchronized (lock) {
+            if (executing || query == null) cancelled = true;
+        }
+    }
+
+    /**
+     * Retrieves whether the current query of this Statement was cancelled. Is reset by the next {@link #executeQuery(String)}
+     *
+     * @return true if {@link #cancel()} was called for the current query
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
 
+    /**
+     * Retrieves whether the current query of this Statement exceeded the time budget
+     *
+     * @return true if the watchdog aborted the current query
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Time budget of the query: the least of the query timeout and the network timeout of connection
+     */
+    private long budgetMillis() {
+        long query = queryTimeout * 1000L;
+        long network = connection.getNetworkTimeout();
+        if (query == 0) return network;
+        return network == 0 ? query : Math.min(query, network);
+    }
+
+    private void startWatchdog() {
+        stopWatchdog();
+        timedOut = false;
+        budgetMillis = budgetMillis();
+        if (budgetMillis > 0)
+            watchdog = WATCHDOG.schedule(() -> timedOut = true, budgetMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Finishes the execution of the current query, when its result is fetched completely or closed:
+     * the watchdog is stopped and the later {@link #cancel()} is ignored
+     *
+     * @param rs result set of the query
+     */
+    void finish(WinSearchResultSet rs) {
+        synchronized (lock) {
+            if (rs != resultSet) return;
+            executing = false;
+        }
+        stopWatchdog();
+    }
+
+    private void stopWatchdog() {
+        if (watchdog != null) watchdog.cancel(false);
+        watchdog = null;
+    }
+
+    WinSearchTimeoutException timeoutException() {
+        return new WinSearchTimeoutException("Query exceeded time budget of " + budgetMillis + " ms:\n" + query);
     }
 
     @Override
@@ -151,14 +356,22 @@ public class WinSearchStatement implements Statement {
         return ResultSet.FETCH_FORWARD;
     }
 
+    /**
+     * Sets the number of records fetched by one call of COM for the result sets of this statement
+     *
+     * @param rows number of records, 0 for the default of 1 record
+     * @throws SQLException when the number is negative
+     * @see WinSearchResultSet#setFetchSize(int)
+     */
     @Override
     public void setFetchSize(int rows) throws SQLException {
-
+        if (rows < 0) throw new WinSearchSQLException("Fetch size must not be negative: " + rows);
+        fetchSize = rows;
     }
 
     @Override
     public int getFetchSize() throws SQLException {
-        return 0;
+        return fetchSize;
     }
 
     @Override
@@ -0,0 +1,13 @@
+package com.jisj.winsearch.sql;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Thrown when a query exceeds the time budget of {@link WinSearchStatement#setQueryTimeout(int) query timeout}
+ * or {@link WinSearchConnection#setNetworkTimeout(java.util.concurrent.Executor, int) network timeout}
+ */
+public class WinSearchTimeoutException extends SQLTimeoutException {
+    public WinSearchTimeoutException(String reason) {
+        super(reason);
+    }
+}
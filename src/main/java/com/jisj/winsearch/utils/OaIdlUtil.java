@@ -23,7 +23,6 @@
 package com.jisj.winsearch.utils;
 
 import com.sun.jna.Pointer;
-import com.sun.jna.platform.win32.OaIdl.DATE;
 import com.sun.jna.platform.win32.OaIdl.SAFEARRAY;
 import com.sun.jna.platform.win32.Variant.VARIANT;
 import static com.sun.jna.platform.win32.Variant.VT_BOOL;
@@ -34,9 +33,12 @@ import static com.sun.jna.platform.win32.Variant.VT_DECIMAL;
 import static com.sun.jna.platform.win32.Variant.VT_DISPATCH;
 import static com.sun.jna.platform.win32.Variant.VT_EMPTY;
 import static com.sun.jna.platform.win32.Variant.VT_ERROR;
+import static com.sun.jna.platform.win32.Variant.VT_ARRAY;
+import static com.sun.jna.platform.win32.Variant.VT_FILETIME;
 import static com.sun.jna.platform.win32.Variant.VT_I1;
 import static com.sun.jna.platform.win32.Variant.VT_I2;
 import static com.sun.jna.platform.win32.Variant.VT_I4;
+import static com.sun.jna.platform.win32.Variant.VT_I8;
 import static com.sun.jna.platform.win32.Variant.VT_INT;
 import static com.sun.jna.platform.win32.Variant.VT_NULL;
 import static com.sun.jna.platform.win32.Variant.VT_R4;
@@ -45,14 +47,24 @@ import static com.sun.jna.platform.win32.Variant.VT_RECORD;
 import static com.sun.jna.platform.win32.Variant.VT_UI1;
 import static com.sun.jna.platform.win32.Variant.VT_UI2;
 import static com.sun.jna.platform.win32.Variant.VT_UI4;
+import static com.sun.jna.platform.win32.Variant.VT_UI8;
 import static com.sun.jna.platform.win32.Variant.VT_UINT;
 import static com.sun.jna.platform.win32.Variant.VT_UNKNOWN;
 import static com.sun.jna.platform.win32.Variant.VT_VARIANT;
-import com.sun.jna.platform.win32.WTypes.BSTR;
 import com.sun.jna.platform.win32.WinDef.SCODE;
 import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
 
 public abstract class OaIdlUtil {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    /**
+     * 1899-12-30 in days since 1970-01-01
+     */
+    private static final long OLE_EPOCH_DAY = -25569L;
 
     /**
      * Read SAFEARRAY into a java array. Not all VARTYPEs are supported!
@@ -220,56 +232,13 @@ public abstract class OaIdlUtil {
                         Array.set(targetArray, targetPos, Array.getDouble(dataArray, offset));
                         break;
                     case VT_DATE:
-                        Array.set(targetArray, targetPos, new DATE(Array.getDouble(dataArray, offset)).getAsJavaDate());
+                        Array.set(targetArray, targetPos, oleDateToDate(Array.getDouble(dataArray, offset)));
                         break;
                     case VT_BSTR:
-                        Array.set(targetArray, targetPos, new BSTR((Pointer) Array.get(dataArray, offset)).getValue());
+                        Array.set(targetArray, targetPos, bstrToString((Pointer) Array.get(dataArray, offset)));
                         break;
                     case VT_VARIANT:
-                        VARIANT holder = (VARIANT) Array.get(dataArray, offset);
-                        switch (holder.getVarType().intValue()) {
-                            case VT_NULL:
-                            case VT_EMPTY:
-                                Array.set(targetArray, targetPos, null);
-                                break;
-                            case VT_BOOL:
-                                Array.set(targetArray, targetPos, holder.booleanValue());
-                                break;
-                            case VT_UI1:
-                            case VT_I1:
-                                Array.set(targetArray, targetPos, holder.byteValue());
-                                break;
-                            case VT_UI2:
-                            case VT_I2:
-                                Array.set(targetArray, targetPos, holder.shortValue());
-                                break;
-                            case VT_UI4:
-                            case VT_UINT:
-                            case VT_I4:
-                            case VT_INT:
-                                Array.set(targetArray, targetPos, holder.intValue());
-                                break;
-                            case VT_ERROR:
-                                Array.set(targetArray, targetPos, new SCODE(holder.intValue()));
-                                break;
-                            case VT_R4:
-                                Array.set(targetArray, targetPos, holder.floatValue());
-                                break;
-                            case VT_R8:
-                                Array.set(targetArray, targetPos, holder.doubleValue());
-                                break;
-                            case VT_DATE:
-                                Array.set(targetArray, targetPos, holder.dateValue());
-                                break;
-                            case VT_BSTR:
-                                Array.set(targetArray, targetPos, holder.stringValue());
-                                break;
-                            case VT_DECIMAL:
-                                Array.set(targetArray, targetPos, holder.getPointer().getLong(8)); //Mike
-                                break;
-                            default:
-                                throw new IllegalStateException("Type not supported: " + holder.getVarType());
-                        }
+                        Array.set(targetArray, targetPos, toJavaObject((VARIANT) Array.get(dataArray, offset)));
                         break;
                     case VT_UNKNOWN:
                     case VT_DISPATCH:
@@ -284,4 +253,206 @@ public abstract class OaIdlUtil {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts the VARIANT to a java object by its VARTYPE. Supported the same VARTYPEs as elements of VT_VARIANT array
+     * in {@link #toPrimitiveArray(SAFEARRAY, boolean)} and also:
+     * <ul>
+     * <li>VT_I8, VT_UI8 (converted to Long)</li>
+     * <li>VT_FILETIME (converted to Date)</li>
+     * <li>VT_ARRAY of VT_BSTR or VT_VARIANT with strings (converted to String[])</li>
+     * <li>VT_ARRAY of other types (converted to Object[])</li>
+     * </ul>
+     *
+     * @param holder VARIANT
+     * @return java object | null for VT_EMPTY and VT_NULL
+     */
+    public static Object toJavaObject(VARIANT holder) {
+        switch (holder.getVarType().intValue()) {
+            case VT_NULL:
+            case VT_EMPTY:
+                return null;
+            case VT_BOOL:
+                return holder.booleanValue();
+            case VT_UI1:
+            case VT_I1:
+                return holder.byteValue();
+            case VT_UI2:
+            case VT_I2:
+                return holder.shortValue();
+            case VT_UI4:
+            case VT_UINT:
+            case VT_I4:
+            case VT_INT:
+                return holder.intValue();
+            case VT_ERROR:
+                return new SCODE(holder.intValue());
+            case VT_R4:
+                return holder.floatValue();
+            case VT_R8:
+                return holder.doubleValue();
+            case VT_DATE:
+                return oleDateToDate(holder.getPointer().getDouble(8));
+            case VT_BSTR:
+                return bstrToString(holder.getPointer().getPointer(8));
+            case VT_DECIMAL:
+                return holder.getPointer().getLong(8); //Mike
+            case VT_I8:
+            case VT_UI8:
+                return toLong(holder);
+            case VT_FILETIME:
+                return new Date(filetimeToMillis(toLong(holder)));
+            default:
+                if ((holder.getVarType().intValue() & VT_ARRAY) != 0) return toJavaArray(holder);
+                throw new IllegalStateException("Type not supported: " + holder.getVarType());
+        }
+    }
+
+    /**
+     * Reads the 64-bit value of VT_I8, VT_UI8, VT_FILETIME or VT_DECIMAL (low 64 bits) VARIANT without intermediate objects
+     *
+     * @param holder VARIANT
+     * @return value
+     */
+    public static long toLong(VARIANT holder) {
+        return holder.getPointer().getLong(8);
+    }
+
+    /**
+     * Converts FILETIME (100-nanosecond intervals since January 1, 1601 UTC) to milliseconds since epoch
+     *
+     * @param filetime FILETIME value
+     * @return milliseconds since January 1, 1970 UTC
+     */
+    public static long filetimeToMillis(long filetime) {
+        return Math.floorDiv(filetime - 116444736000000000L, 10000L);
+    }
+
+    /**
+     * Converts OLE Automation date to the local milliseconds arithmetically, without {@link java.util.Calendar}.
+     * <p>OLE Automation date is the number of days since 1899-12-30 00:00 of the local time, the fraction is the time of day.
+     * The time of the negative date counts forward from the day start too: -1.25 is 1899-12-29 06:00
+     *
+     * @param date OLE Automation date, value of VT_DATE
+     * @return milliseconds since 1970-01-01 00:00 of the local time
+     */
+    public static long oleDateToLocalMillis(double date) {
+        long day = (long) date;
+        long time = Math.round(Math.abs(date - day) * MILLIS_PER_DAY);
+        return (OLE_EPOCH_DAY + day) * MILLIS_PER_DAY + time;
+    }
+
+    /**
+     * Converts the local milliseconds to milliseconds since epoch by the offset of the time zone at that local time
+     *
+     * @param localMillis milliseconds since 1970-01-01 00:00 of the local time
+     * @param zone        time zone
+     * @return milliseconds since 1970-01-01 00:00 UTC
+     */
+    public static long localMillisToEpochMillis(long localMillis, ZoneId zone) {
+        ZoneOffset offset = zone.getRules().getOffset(localMillisToLocalDateTime(localMillis));
+        return localMillis - offset.getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * Converts the local milliseconds to {@link LocalDateTime}
+     *
+     * @param localMillis milliseconds since 1970-01-01 00:00 of the local time
+     * @return {@link LocalDateTime}
+     */
+    public static LocalDateTime localMillisToLocalDateTime(long localMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000L),
+                (int) Math.floorMod(localMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts OLE Automation date to {@link Date} in the default time zone
+     *
+     * @param date OLE Automation date, value of VT_DATE
+     * @return {@link Date}
+     */
+    public static Date oleDateToDate(double date) {
+        return new Date(localMillisToEpochMillis(oleDateToLocalMillis(date), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Reads the one-dimensional SAFEARRAY of VT_BSTR or VT_VARIANT with strings into a String array.
+     * The array is not destroyed, it is owned by the VARIANT
+     *
+     * @param sa SAFEARRAY
+     * @return String[] | null if the elements are not strings
+     */
+    public static String[] toStringArray(SAFEARRAY sa) {
+        int varType = sa.getVarType().intValue();
+        if (varType != VT_BSTR && varType != VT_VARIANT || sa.getDimensionCount() != 1) return null;
+        int count = sa.getUBound(0) - sa.getLBound(0) + 1;
+        String[] strings = new String[count];
+        if (count == 0) return strings;
+        Pointer data = sa.accessData();
+        try {
+            if (varType == VT_BSTR) {
+                Pointer[] pointers = data.getPointerArray(0, count);
+                for (int i = 0; i < count; i++) strings[i] = bstrToString(pointers[i]);
+            } else {
+                Object[] variants = new VARIANT(data).toArray(count);
+                for (int i = 0; i < count; i++) {
+                    VARIANT element = (VARIANT) variants[i];
+                    int elementType = element.getVarType().intValue();
+                    if (elementType == VT_BSTR) strings[i] = bstrToString(element.getPointer().getPointer(8));
+                    else if (elementType != VT_EMPTY && elementType != VT_NULL) return null;
+                }
+            }
+        } finally {
+            sa.unaccessData();
+        }
+        return strings;
+    }
+
+    /**
+     * Reads the BSTR by its length prefix: the UTF-16 code units are copied in one native read without the terminator scan.
+     * ASCII-only strings are compacted to one byte per char without the UTF-16 decoding
+     *
+     * @param bstr pointer to the BSTR data, the 4-byte length in bytes precedes it
+     * @return string | empty string for the NULL BSTR, as COM treats it
+     */
+    public static String bstrToString(Pointer bstr) {
+        int length = bstrLength(bstr);
+        if (length == 0) return "";
+        byte[] utf16 = bstr.getByteArray(0, length);
+        return utf16ToString(utf16, length);
+    }
+
+    /**
+     * Returns length of the BSTR data in bytes, read from the 4-byte prefix
+     *
+     * @param bstr pointer to the BSTR data
+     * @return even number of bytes | 0 for the NULL BSTR
+     */
+    public static int bstrLength(Pointer bstr) {
+        if (bstr == null) return 0;
+        return Math.max(0, bstr.getInt(-4)) & ~1;
+    }
+
+    /**
+     * Creates string of the UTF-16LE code units. ASCII-only strings are compacted to one byte per char without the UTF-16 decoding
+     *
+     * @param utf16  buffer of UTF-16LE code units
+     * @param length number of bytes to decode
+     * @return string
+     */
+    public static String utf16ToString(byte[] utf16, int length) {
+        byte[] ascii = new byte[length >> 1];
+        for (int i = 0, j = 0; i < length; i += 2, j++) {
+            byte low = utf16[i];
+            if (utf16[i + 1] != 0 || low < 0) return new String(utf16, 0, length, StandardCharsets.UTF_16LE);
+            ascii[j] = low;
+        }
+        return new String(ascii, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Object toJavaArray(VARIANT holder) {
+        SAFEARRAY sa = new SAFEARRAY(holder.getPointer().getPointer(8));
+        String[] strings = toStringArray(sa);
+        return strings != null ? strings : toPrimitiveArray(sa, false);
+    }
+}
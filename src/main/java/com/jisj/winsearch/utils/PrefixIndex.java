@@ -0,0 +1,207 @@
+package com.jisj.winsearch.utils;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Immutable prefix index of string keys with int item ids, thread-safe.
+ * <p>The keys are lower-cased and kept in the sorted front-coded array: the keys are split to blocks of {@link #BLOCK_SIZE},
+ * the first key of block is kept as is, the next keys of block are kept as the length of common prefix with the previous key
+ * and the rest chars. All the rest chars are packed to one char array, so the index has a few objects per block only.
+ * <p>The prefix search is the binary search over the first keys of blocks and the sequential decoding of the matching keys
+ */
+public final class PrefixIndex {
+    /**
+     * Number of keys in one block
+     */
+    public static final int BLOCK_SIZE = 16;
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingInt(Entry::id);
+    private static final PrefixIndex EMPTY = new PrefixIndex(List.of());
+    private final int size;
+    private final String[] heads;
+    private final char[] shared;
+    private final char[] suffixes;
+    private final int[] offsets;
+    private final int[] ids;
+
+    /**
+     * Entry of the index
+     *
+     * @param key key string
+     * @param id  item id
+     */
+    public record Entry(String key, int id) {
+    }
+
+    /**
+     * Builds index from the sorted entries with the normalized keys
+     */
+    private PrefixIndex(List<Entry> sorted) {
+        size = sorted.size();
+        heads = new String[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        shared = new char[size];
+        offsets = new int[size + 1];
+        ids = new int[size];
+        StringBuilder chars = new StringBuilder();
+        String previous = "";
+        for (int i = 0; i < size; i++) {
+            String key = sorted.get(i).key();
+            ids[i] = sorted.get(i).id();
+            if (i % BLOCK_SIZE == 0) heads[i / BLOCK_SIZE] = key;
+            else {
+                int common = Math.min(commonPrefix(previous, key), Character.MAX_VALUE);
+                shared[i] = (char) common;
+                chars.append(key, common, key.length());
+            }
+            offsets[i + 1] = chars.length();
+            previous = key;
+        }
+        suffixes = new char[chars.length()];
+        chars.getChars(0, chars.length(), suffixes, 0);
+    }
+
+    /**
+     * Returns empty index
+     *
+     * @return empty index
+     */
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds index
+     *
+     * @param entries entries in any order, the keys are normalized by {@link #normalize(String)}
+     * @return index
+     */
+    public static PrefixIndex of(Collection<Entry> entries) {
+        return new PrefixIndex(sorted(entries));
+    }
+
+    /**
+     * Normalizes key for the index and the search
+     *
+     * @param key key string
+     * @return lower-cased key
+     */
+    public static String normalize(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds new index with entries of this index and the added entries. The entries of this index are decoded
+     * in order and merged with the sorted added entries, without sorting of all entries
+     *
+     * @param added entries to add
+     * @return new index
+     */
+    public PrefixIndex merge(Collection<Entry> added) {
+        if (added.isEmpty()) return this;
+        List<Entry> addedSorted = sorted(added);
+        List<Entry> merged = new ArrayList<>(size + addedSorted.size());
+        Iterator<Entry> iterator = addedSorted.iterator();
+        Entry[] next = {iterator.next()};
+        forEach((key, id) -> {
+            Entry entry = new Entry(key, id);
+            while (next[0] != null && ORDER.compare(next[0], entry) < 0) {
+                merged.add(next[0]);
+                next[0] = iterator.hasNext() ? iterator.next() : null;
+            }
+            merged.add(entry);
+        });
+        if (next[0] != null) merged.add(next[0]);
+        iterator.forEachRemaining(merged::add);
+        return new PrefixIndex(merged);
+    }
+
+    /**
+     * Number of entries
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds ids of the entries with keys starting with the prefix
+     *
+     * @param prefix prefix of key, normalized by {@link #normalize(String)}
+     * @param limit  maximum number of ids
+     * @return ids in the order of keys
+     */
+    public int[] find(String prefix, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+        final String normalized = normalize(prefix);
+        int[] found = new int[Math.min(limit, size)];
+        int count = 0;
+        StringBuilder key = new StringBuilder();
+        for (int i = firstBlock(normalized) * BLOCK_SIZE; i < size && count < found.length; i++) {
+            decode(i, key);
+            if (startsWith(key, normalized)) found[count++] = ids[i];
+            else if (CharSequence.compare(key, normalized) > 0) break;
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Performs the action for each entry in the order of keys
+     *
+     * @param action action for key and id
+     */
+    public void forEach(ObjIntConsumer<String> action) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            decode(i, key);
+            action.accept(key.toString(), ids[i]);
+        }
+    }
+
+    /**
+     * Block before the first block with the head not less than the prefix: the block can contain the matching keys
+     */
+    private int firstBlock(String prefix) {
+        int low = 0, high = heads.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (heads[mid].compareTo(prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return Math.max(low - 1, 0);
+    }
+
+    /**
+     * Decodes key at index i. The builder should contain the key at i - 1, when i is not the first in block
+     */
+    private void decode(int i, StringBuilder key) {
+        if (i % BLOCK_SIZE == 0) {
+            key.setLength(0);
+            key.append(heads[i / BLOCK_SIZE]);
+        } else {
+            key.setLength(shared[i]);
+            key.append(suffixes, offsets[i], offsets[i + 1] - offsets[i]);
+        }
+    }
+
+    private static List<Entry> sorted(Collection<Entry> entries) {
+        List<Entry> list = new ArrayList<>(entries.size());
+        for (Entry entry : entries) list.add(new Entry(normalize(entry.key()), entry.id()));
+        list.sort(ORDER);
+        return list;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence str, String prefix) {
+        if (str.length() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++)
+            if (str.charAt(i) != prefix.charAt(i)) return false;
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.jisj.winsearch.utils;
+
+import com.sun.jna.Pointer;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Bounded dictionary of strings for the dictionary encoding of low-cardinality columns, for ex. System.ItemTypeText
+ * <p>The BSTR is read into the reused buffer and looked up by its UTF-16 code units, so a repeated value is returned
+ * as the shared {@link String} instance without allocation. The distinct values get int codes in order of appearance.
+ * When the dictionary is full, the new values are not encoded. When it is full and the misses outnumber the hits,
+ * the column has high cardinality and the dictionary is disabled
+ * <p>The arrays are allocated for {@link #INITIAL_CAPACITY} values and doubled up to the capacity as the values are added
+ */
+public class StringDictionary {
+    /**
+     * Default maximum number of values
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /**
+     * Number of values allocated by the new dictionary
+     */
+    public static final int INITIAL_CAPACITY = 16;
+    /**
+     * Code of the value, that is not encoded
+     */
+    public static final int NO_CODE = -1;
+    private final int capacity;
+    private String[] values;
+    /**
+     * Open addressing hash table: code + 1, 0 for the empty slot
+     */
+    private int[] table;
+    private int mask;
+    private int size = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private boolean disabled = false;
+    private byte[] buffer = new byte[128];
+    private String overflow;
+
+    /**
+     * Creates dictionary
+     *
+     * @param capacity maximum number of values
+     */
+    public StringDictionary(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        allocate(Math.min(capacity, INITIAL_CAPACITY));
+    }
+
+    /**
+     * Encodes the BSTR
+     *
+     * @param bstr pointer to the BSTR data
+     * @return code of the value | {@link #NO_CODE} if the dictionary is full or disabled, see {@link #overflow()}
+     */
+    public int encode(Pointer bstr) {
+        overflow = null;
+        if (disabled) return NO_CODE;
+        int length = OaIdlUtil.bstrLength(bstr);
+        if (buffer.length < length) buffer = new byte[Math.max(length, buffer.length * 2)];
+        if (length > 0) bstr.read(0, buffer, 0, length);
+        int hash = hash(buffer, length);
+        int slot = hash & mask;
+        for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+            String value = values[entry - 1];
+            if (value.hashCode() == hash && equals(value, buffer, length)) {
+                hits++;
+                return entry - 1;
+            }
+        }
+        misses++;
+        String value = OaIdlUtil.utf16ToString(buffer, length);
+        if (size == capacity) {
+            if (misses > hits) disabled = true;
+            overflow = value;
+            return NO_CODE;
+        }
+        if (size == values.length) {
+            allocate(Math.min(capacity, size * 2));
+            slot = hash & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+        }
+        values[size] = value;
+        table[slot] = ++size;
+        return size - 1;
+    }
+
+    /**
+     * Returns the value of the last {@link #encode(Pointer)}, that was read but not encoded because the dictionary is full
+     *
+     * @return value | null if the value was encoded or not read because the dictionary is disabled
+     */
+    public String overflow() {
+        return overflow;
+    }
+
+    /**
+     * Returns the shared value of the code
+     *
+     * @param code code of the value
+     * @return value
+     * @throws IndexOutOfBoundsException for unknown code
+     */
+    public String get(int code) {
+        Objects.checkIndex(code, size);
+        return values[code];
+    }
+
+    /**
+     * Number of encoded values
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true, if the dictionary is disabled for the high-cardinality column
+     *
+     * @return true if the values are not encoded anymore
+     */
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    /**
+     * Allocates the arrays for the values and rehashes the encoded ones, the table is kept at most half full
+     */
+    private void allocate(int length) {
+        values = values == null ? new String[length] : Arrays.copyOf(values, length);
+        table = new int[Integer.highestOneBit(length) << 2];
+        mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = values[code].hashCode() & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = code + 1;
+        }
+    }
+
+    /**
+     * The same as {@link String#hashCode()} of the decoded value
+     */
+    private static int hash(byte[] utf16, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i += 2) hash = 31 * hash + ((utf16[i] & 0xff) | (utf16[i + 1] & 0xff) << 8);
+        return hash;
+    }
+
+    private static boolean equals(String value, byte[] utf16, int length) {
+        if (value.length() != length >> 1) return false;
+        for (int i = 0, j = 0; i < length; i += 2, j++)
+            if (value.charAt(j) != ((utf16[i] & 0xff) | (utf16[i + 1] & 0xff) << 8)) return false;
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jisj.winsearch.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded collector of the k greatest elements. Keeps the elements in min-heap of size k, so memory is O(k)
+ *
+ * @param <T> type of elements
+ */
+public class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * Creates collector
+     *
+     * @param k          maximum number of elements
+     * @param comparator comparator of elements, the greatest elements are kept
+     */
+    public TopK(int k, Comparator<? super T> comparator) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(k, comparator);
+    }
+
+    /**
+     * Offers the element. The element is kept if there are less than k elements or it is greater than the least kept element
+     *
+     * @param element element
+     * @return true if the element is kept
+     */
+    public boolean offer(T element) {
+        if (heap.size() < k) return heap.add(element);
+        if (comparator.compare(element, heap.peek()) <= 0) return false;
+        heap.poll();
+        return heap.add(element);
+    }
+
+    /**
+     * Offers all the elements
+     *
+     * @param elements elements
+     * @return this collector
+     */
+    public TopK<T> offerAll(Iterable<? extends T> elements) {
+        for (T element : elements) offer(element);
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Returns kept elements
+     *
+     * @return new list of elements from the greatest to the least
+     */
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(heap);
+        list.sort(comparator.reversed());
+        return list;
+    }
+}
@@ -0,0 +1,51 @@
+package com.jisj.winsearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.Contains;
+import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.EqualTo;
+import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.FreeText;
+
+class FindStringBuilderTest {
+
+    @Test
+    void build() {
+        assertEquals("\"it''s a_ b_\"", FindStringBuilder.build("it's a. b!", false));
+        assertEquals("it''s a_ b_", FindStringBuilder.build("it's a. b!", true));
+        assertEquals("\"a b\"", FindStringBuilder.build("\"a b\"", false));
+        assertEquals("it''s a. b!", FindStringBuilder.build("it's a. b!"));
+        assertEquals("a. b", FindStringBuilder.build("a. b", FreeText));
+        assertEquals("a_ b", FindStringBuilder.build("a. b", Contains).replace("\"", ""));
+    }
+
+    @Test
+    void build_unchanged() {
+        String str = "standby archive";
+        assertSame(str, FindStringBuilder.build(str));
+        assertSame(str, FindStringBuilder.build(str, true));
+        assertSame(str, FindStringBuilder.build(str, EqualTo));
+        String quoted = "\"standby archive\"";
+        assertSame(quoted, FindStringBuilder.build(quoted, Contains));
+    }
+
+    @Test
+    void needsQuotation() {
+        assertTrue(FindStringBuilder.needsQuotation("a b"));
+        assertFalse(FindStringBuilder.needsQuotation("\"a b\""));
+        assertFalse(FindStringBuilder.needsQuotation("ab"));
+        assertFalse(FindStringBuilder.isQuotationEnclosed("\""));
+    }
+
+    @Test
+    void buildAnyOf() {
+        assertEquals("\"standby\" OR \"fake archive\" OR \"it''s\"",
+                FindStringBuilder.buildAnyOf(List.of("standby", "fake \"archive\"", "it's"), Contains));
+        assertEquals("standby fake it''s",
+                FindStringBuilder.buildAnyOf(List.of("standby", "fake", "it's"), FreeText));
+        assertTrue(FindStringBuilder.isQuotationEnclosed(FindStringBuilder.buildAnyOf(List.of("a b", "c"), Contains)));
+        assertThrowsExactly(IllegalArgumentException.class, () -> FindStringBuilder.buildAnyOf(List.of("a"), EqualTo));
+    }
+}
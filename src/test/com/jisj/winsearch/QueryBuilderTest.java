@@ -4,7 +4,11 @@ import org.junit.jupiter.api.Test;
 import com.jisj.winsearch.properties.Core;
 
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -101,4 +105,120 @@ class QueryBuilderTest {
         ).trim());
 
     }
+
+    @Test
+    void buildScope() {
+        assertEquals("SELECT System.FileName, System.ItemPathDisplay\nFROM SystemIndex",
+                QueryBuilder.buildScope(List.of("System.FileName", "System.ItemPathDisplay"), Set.of()));
+        assertThrowsExactly(IllegalArgumentException.class, () -> QueryBuilder.buildScope(List.of(), Set.of()));
+    }
+
+    @Test
+    void compactFolders() {
+        Path data = Path.of("data").toAbsolutePath();
+        Set<QueryBuilder.Folder> folders = QueryBuilder.compactFolders(List.of(
+                QueryBuilder.Folder.of(data, QueryBuilder.DepthPredicate.Deep),
+                QueryBuilder.Folder.of(data.resolve("x"), QueryBuilder.DepthPredicate.Shallow),
+                QueryBuilder.Folder.of(data.resolve("y/../z"), QueryBuilder.DepthPredicate.Deep),
+                QueryBuilder.Folder.of(Path.of("Other"), QueryBuilder.DepthPredicate.Shallow),
+                QueryBuilder.Folder.of(Path.of("other/"), QueryBuilder.DepthPredicate.Deep),
+                QueryBuilder.Folder.of(Path.of("other/sub"), QueryBuilder.DepthPredicate.Shallow),
+                QueryBuilder.Folder.of(Path.of("shallow"), QueryBuilder.DepthPredicate.Shallow),
+                QueryBuilder.Folder.of(Path.of("shallow/sub"), QueryBuilder.DepthPredicate.Shallow)));
+
+        assertEquals(List.of(
+                        "data:Deep",
+                        "other:Deep",
+                        "shallow:Shallow",
+                        "sub:Shallow"),
+                folders.stream()
+                        .map(folder -> folder.getPath().getFileName().toString().toLowerCase() + ":" + folder.getDepth())
+                        .toList());
+        assertTrue(folders.stream().allMatch(folder -> folder.getPath().isAbsolute()));
+    }
+
+    @Test
+    void selectColumns() {
+        assertEquals(List.of("System.ItemPathDisplay", "System.FileName"),
+                QueryBuilder.selectColumns("SELECT System.ItemPathDisplay, System.FileName\nFROM SystemIndex"));
+        assertEquals(List.of("System.FileName"),
+                QueryBuilder.selectColumns("select top 10 System.FileName from SystemIndex WHERE System.FileName='from'"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> QueryBuilder.selectColumns("System.FileName"));
+    }
+
+    @Test
+    void withClauses() {
+        final String sql = """
+                SELECT System.ItemPathDisplay, System.FileName
+                FROM SystemIndex
+                WHERE CONTAINS(*, 'order by')""";
+        assertEquals("""
+                SELECT TOP 11 System.ItemPathDisplay, System.FileName, System.ItemUrl
+                FROM SystemIndex
+                WHERE CONTAINS(*, 'order by') AND (System.ItemUrl > 'file:a''b')
+                ORDER BY System.ItemUrl""",
+                QueryBuilder.withOrderBy(
+                        QueryBuilder.withTop(
+                                QueryBuilder.withCondition(
+                                        QueryBuilder.withColumns(sql, List.of("System.ItemUrl", "System.FileName")),
+                                        QueryBuilder.buildKeysetCondition(List.of("System.ItemUrl"), List.of("file:a'b"))),
+                                11),
+                        List.of("System.ItemUrl")));
+
+        //replaces existing TOP and ORDER BY, condition goes before ORDER BY
+        assertEquals("SELECT TOP 5 System.FileName FROM SystemIndex\nWHERE (System.Size > 10)\nORDER BY System.Size DESC",
+                QueryBuilder.withCondition(
+                        QueryBuilder.withOrderBy(
+                                QueryBuilder.withTop("SELECT TOP 100 System.FileName FROM SystemIndex ORDER BY System.FileName", 5),
+                                List.of("System.Size DESC")),
+                        "System.Size > 10"));
+    }
+
+    @Test
+    void withSelectColumns() {
+        assertEquals("SELECT System.FileName\nFROM SystemIndex WHERE CONTAINS(*, 'from')",
+                QueryBuilder.withSelectColumns("SELECT System.ItemPathDisplay, System.FileName, System.Size\nFROM SystemIndex WHERE CONTAINS(*, 'from')",
+                        List.of("System.FileName")));
+        assertEquals("SELECT TOP 5 System.Size, System.FileName FROM SystemIndex",
+                QueryBuilder.withSelectColumns("SELECT TOP 5 System.FileName FROM SystemIndex",
+                        List.of("System.Size", "System.FileName", "System.Size")));
+        assertThrowsExactly(IllegalArgumentException.class,
+                () -> QueryBuilder.withSelectColumns("SELECT System.FileName FROM SystemIndex", List.of()));
+    }
+
+    @Test
+    void withMaxRows() {
+        assertEquals("SELECT TOP 10 System.FileName FROM SystemIndex",
+                QueryBuilder.withMaxRows("SELECT System.FileName FROM SystemIndex", 10));
+        assertEquals("SELECT TOP 10 System.FileName FROM SystemIndex",
+                QueryBuilder.withMaxRows("SELECT TOP 100 System.FileName FROM SystemIndex", 10));
+        //the less existing TOP is kept
+        assertEquals("SELECT TOP 5 System.FileName FROM SystemIndex",
+                QueryBuilder.withMaxRows("SELECT TOP 5 System.FileName FROM SystemIndex", 10));
+    }
+
+    @Test
+    void buildKeysetCondition() {
+        assertEquals("System.Size > 10 OR (System.Size = 10 AND System.ItemUrl > 'file:x')",
+                QueryBuilder.buildKeysetCondition(List.of("System.Size", "System.ItemUrl"), List.of(10, "file:x")));
+        assertThrowsExactly(IllegalArgumentException.class,
+                () -> QueryBuilder.buildKeysetCondition(List.of("System.Size"), List.of()));
+        //NULL is the lowest value
+        assertEquals("System.Size IS NOT NULL OR (System.Size IS NULL AND System.ItemUrl > 'file:x')",
+                QueryBuilder.buildKeysetCondition(List.of("System.Size", "System.ItemUrl"), Arrays.asList(null, "file:x")));
+        //date key: the same second is included, the next keys are compared by the caller
+        Date modified = Date.from(LocalDateTime.of(2024, 1, 2, 10, 0, 0, 500_000_000).atZone(ZoneId.systemDefault()).toInstant());
+        assertEquals("System.DateModified >= '2024/01/02 10:00:00'",
+                QueryBuilder.buildKeysetCondition(List.of("System.DateModified", "System.ItemUrl"), List.of(modified, "file:x")));
+    }
+
+    @Test
+    void buildGroupOn() {
+        final String sql = "SELECT System.FileName FROM SystemIndex WHERE CONTAINS(*, '%s')";
+        assertEquals("GROUP ON System.Kind OVER (GROUP ON System.Size [0, 1024, 1048576] OVER (SELECT System.FileName FROM SystemIndex WHERE CONTAINS(*, '%s')))",
+                QueryBuilder.buildGroupOn(List.of(
+                        QueryBuilder.GroupOn.of(Core.SystemKind),
+                        QueryBuilder.GroupOn.of("System.Size", 0, 1024, 1048576)), sql));
+        assertThrowsExactly(IllegalArgumentException.class, () -> QueryBuilder.buildGroupOn(List.of(), sql));
+    }
 }
\ No newline at end of file
@@ -3,13 +3,24 @@ package com.jisj.winsearch;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import com.jisj.winsearch.properties.Core;
+import com.jisj.winsearch.sql.Projection;
 import com.jisj.winsearch.sql.WinSearchConnection;
 import com.jisj.winsearch.sql.WinSearchDataSource;
+import com.jisj.winsearch.utils.TopK;
 
+import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static com.jisj.winsearch.QueryBuilder.ComparisonPredicate.Contains;
@@ -44,6 +55,7 @@ class QueryExecutorTest {
         assertEquals(Contains, executor.getFullTextPredicate());
         assertEquals(2, executor.getFolders().size());
         assertEquals(1, executor.getFulltextColumns().size());
+        assertEquals("System.Search.GatherTime", executor.getWatermarkColumn());
         System.out.println(executor.getSqlStatement());
     }
 
@@ -100,4 +112,241 @@ class QueryExecutorTest {
         assertEquals(1, executor.find("standby", mapper).size());
     }
 
+    @Test
+    void compile() throws InterruptedException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor.QueryExecutorBuilder builder = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Shallow))
+                .comparisonPredicate(Contains)
+                .dataSource(new WinSearchDataSource());
+        QueryExecutor executor = builder.build();
+        CompiledQuery query = builder.compile();
+        assertEquals(executor.getSqlStatement(), query.getSqlStatement());
+        assertThrowsExactly(IllegalArgumentException.class, () -> query.execute("bla bla", Stream::count));
+        //the rows must be collected before the connection is closed
+        assertThrowsExactly(IllegalStateException.class, () -> query.execute("standby", stream -> stream.map(rs -> rs)));
+
+        //shared between threads
+        List<Thread> threads = new ArrayList<>();
+        List<CompiledQuery.Result<Long>> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++)
+            threads.add(Thread.ofPlatform().start(() -> results.add(query.execute("standby", Stream::count))));
+        for (Thread thread : threads) thread.join();
+        assertEquals(4, results.size());
+        results.forEach(result -> {
+            assertEquals(1, result.value());
+            assertEquals(1, result.statistics().records());
+            assertTrue(result.statistics().totalNanos() > 0);
+        });
+    }
+
+    @Test
+    void findPage() throws SQLException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .connection((WinSearchConnection) new WinSearchDataSource().getConnection())
+                .build();
+
+        List<String> names = new ArrayList<>();
+        QueryExecutor.Page<String> page = executor.find("*", 1, null, rs -> rs.getString(0));
+        names.addAll(page.items());
+        while (page.hasNext()) {
+            assertEquals(1, page.items().size());
+            page = executor.find("*", 1, page.continuationToken(), rs -> rs.getString(0));
+            names.addAll(page.items());
+        }
+        assertEquals(names.size(), names.stream().distinct().count());
+        assertTrue(names.contains("standby.png"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> executor.find("*", 1, "bad-token"));
+    }
+
+    @Test
+    void compareKeys() {
+        Date modified = new Date(1_700_000_000_500L);
+        List<Object> after = PageToken.decode(PageToken.encode(List.of(modified, "file:b")), 2);
+        assertEquals(List.of(modified, "file:b"), after);
+        //rows of the same second as the date page key
+        assertTrue(QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_000L), "file:z"), after) < 0);
+        assertEquals(0, QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_500L), "file:b"), after));
+        assertTrue(QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_500L), "file:c"), after) > 0);
+        assertTrue(QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_900L), "file:a"), after) > 0);
+        //the indexer orders the strings ignoring case
+        assertTrue(QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_500L), "file:A"), after) < 0);
+        assertTrue(QueryExecutor.compareKeys(List.of(new Date(1_700_000_000_500L), "file:C"), after) > 0);
+        //the values can contain any symbols
+        List<Object> values = Arrays.asList("a\u001Fb:7", null, new BigDecimal("-1.5"), "");
+        assertEquals(values, PageToken.decode(PageToken.encode(values), 4));
+        //NULL key is kept by the token and is the lowest value
+        List<Object> nullKey = PageToken.decode(PageToken.encode(Arrays.asList(null, "file:b")), 2);
+        assertNull(nullKey.getFirst());
+        assertTrue(QueryExecutor.compareKeys(List.of(modified, "file:a"), nullKey) > 0);
+        assertTrue(QueryExecutor.compareKeys(List.of(10L, "file:a"), List.of(new BigDecimal("9.5"), "file:b")) > 0);
+    }
+
+    @Test
+    void findAll() {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .build();
+
+        List<QueryExecutor.TermHit<String>> hits = executor.findAll(
+                List.of("standby", "fake-archive", "bla-bla", "standby*"), rs -> rs.getString(0), 2);
+        assertEquals(2, hits.size());
+        assertEquals("standby.png", hits.getFirst().item());
+        assertEquals(Set.of("standby", "standby*"), hits.getFirst().terms());
+        assertEquals(Set.of("fake-archive"), hits.get(1).terms());
+    }
+
+    @Test
+    void findParallel() {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Shallow), Folder.of(dataPath.resolve("sub-folder"), Shallow))
+                .comparisonPredicate(Contains)
+                .build();
+
+        List<String> unordered = executor.findParallel("*", rs -> rs.getString(0), 2);
+        List<String> ordered = executor.findParallel("*", rs -> rs.getString(0), 2,
+                List.of("System.FileName DESC"), Comparator.<String>reverseOrder());
+        assertTrue(ordered.containsAll(List.of("standby.png", "fake-archive.zip")));
+        assertEquals(unordered.size(), ordered.size());
+        assertEquals(ordered.stream().sorted(Comparator.reverseOrder()).toList(), ordered);
+    }
+
+    @Test
+    void findTop() {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Shallow), Folder.of(dataPath.resolve("sub-folder"), Shallow))
+                .comparisonPredicate(Contains)
+                .build();
+
+        assertEquals(1, executor.findTop("*", 1, rs -> rs.getString(0)).size());
+        List<String> names = executor.findTop("*", 2, rs -> rs.getString(0), 2, Core.SystemFileName.getName(), true);
+        assertEquals(2, names.size());
+        assertEquals(names.stream().sorted(Comparator.reverseOrder()).toList(), names);
+    }
+
+    @Test
+    void rankOrder() {
+        record Row(String name, Comparable<Object> key) {
+        }
+        List<Row> rows = List.of(new Row("c", key(3)), new Row("x", null), new Row("a", key(1)), new Row("y", null), new Row("b", key(2)));
+        //null keys are the last in ascending order and are evicted first
+        assertEquals(List.of("a", "b"), new TopK<>(2, Comparator.comparing(Row::key, QueryExecutor.rankOrder(false)))
+                .offerAll(rows).toList().stream().map(Row::name).toList());
+        assertEquals(List.of("a", "b", "c"), new TopK<>(4, Comparator.comparing(Row::key, QueryExecutor.rankOrder(false)))
+                .offerAll(rows).toList().stream().map(Row::name).limit(3).toList());
+        assertEquals(List.of("c", "b"), new TopK<>(2, Comparator.comparing(Row::key, QueryExecutor.rankOrder(true)))
+                .offerAll(rows).toList().stream().map(Row::name).toList());
+        assertNull(new TopK<>(4, Comparator.comparing(Row::key, QueryExecutor.rankOrder(true)))
+                .offerAll(rows).toList().getLast().key());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> key(int value) {
+        return (Comparable<Object>) (Comparable<?>) value;
+    }
+
+    @Test
+    void findLatest() {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .build();
+
+        assertTrue(executor.findLatest("field", "*", Stream::count).orElseThrow() > 0);
+        //the query is superseded while the result is fetched
+        assertTrue(executor.findLatest("field", "*", stream -> {
+            executor.cancel("field");
+            return stream.count();
+        }).isEmpty());
+        assertFalse(executor.cancel("field"));
+    }
+
+    @Test
+    void findSelectQuery() throws SQLException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .connection((WinSearchConnection) new WinSearchDataSource().getConnection())
+                .buildEmpty();
+        SelectQuery query = SelectQuery.builder()
+                .select(Core.SystemFileName, Core.SystemSize)
+                .folders(Folder.of(dataPath, Deep))
+                .where(Condition.eq(Core.SystemFileExtension, Condition.param("ext")))
+                .orderBy(Core.SystemSize, true)
+                .build();
+
+        List<String> names = executor.find(query, Map.of("ext", ".png"), rs -> rs.getString(0));
+        assertTrue(names.contains("standby.png"));
+        assertTrue(names.stream().allMatch(name -> name.endsWith(".png")));
+    }
+
+    @Test
+    void findProjection() throws SQLException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemItemPathDisplay, Core.SystemFileExtension, Core.SystemFileName, Core.SystemSize)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .connection((WinSearchConnection) new WinSearchDataSource().getConnection())
+                .build();
+
+        //only System.FileName is selected, the value is read by label
+        QueryExecutor.Delta<String> delta = executor.findChanges("*",
+                Projection.of(rs -> rs.getString("system.filename"), Core.SystemFileName));
+        assertTrue(delta.items().contains("standby.png"));
+        assertTrue(executor.getResultStatement().contains("SELECT System.FileName, System.DateModified"));
+    }
+
+    @Test
+    void findChanges() throws SQLException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName, Core.SystemItemPathDisplay)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .connection((WinSearchConnection) new WinSearchDataSource().getConnection())
+                .build();
+
+        assertTrue(executor.getWatermark("*").isEmpty());
+        QueryExecutor.Delta<String> delta = executor.findChanges("*", rs -> rs.getString(0));
+        assertTrue(delta.items().contains("standby.png"));
+        assertEquals(Optional.of(delta.watermark()), executor.getWatermark("*"));
+        //no changes after the first call
+        assertEquals(0, executor.findChanges("*", rs -> rs.getString(0)).items().size());
+        assertEquals(delta.watermark(), executor.getWatermark("*").orElseThrow());
+        executor.resetWatermarks();
+        assertEquals(delta.items().size(), executor.findChanges("*", rs -> rs.getString(0)).items().size());
+    }
+
+    @Test
+    void aggregate() throws SQLException {
+        final Path dataPath = Path.of("src/test/resources/test-data");
+        QueryExecutor executor = QueryExecutor.builder()
+                .properties(Core.SystemFileName)
+                .folders(Folder.of(dataPath, Deep))
+                .comparisonPredicate(Contains)
+                .connection((WinSearchConnection) new WinSearchDataSource().getConnection())
+                .build();
+
+        List<QueryExecutor.Group> groups = executor.aggregate("*", List.of(
+                QueryBuilder.GroupOn.of(Core.SystemFileExtension),
+                QueryBuilder.GroupOn.of("System.Size", 0, 1024)));
+        assertTrue(groups.stream().anyMatch(group -> ".png".equals(group.key()) && group.count() == 1));
+        groups.forEach(group -> assertEquals(group.count(),
+                group.children().stream().mapToLong(QueryExecutor.Group::count).sum()));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.jisj.winsearch;
+
+import com.jisj.winsearch.properties.Core;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectQueryTest {
+
+    @Test
+    void condition() {
+        assertEquals("(System.FileExtension = '.txt' OR System.FileExtension = '.md')",
+                Condition.in(Core.SystemFileExtension, ".txt", ".md").toString());
+        assertEquals("NOT (System.FileName LIKE 'O''Neil%')",
+                Condition.not(Condition.like(Core.SystemFileName, "O'Neil%")).toString());
+        assertEquals("System.Kind = SOME ARRAY['document', :kind]",
+                Condition.anyOf(Core.SystemKind, "document", Condition.param("kind")).toString());
+        assertEquals("(System.Size > 10 AND CONTAINS(*, '\"re*\"'))",
+                Condition.and(Condition.gt(Core.SystemSize, 10), Condition.contains("\"re*\"")).toString());
+        Date from = Date.from(LocalDate.of(2024, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date to = Date.from(LocalDate.of(2024, 2, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        assertEquals("(System.DateModified >= '2024/01/01 00:00:00' AND System.DateModified < '2024/02/01 00:00:00')",
+                Condition.range(Core.SystemDateModified, from, to).toString());
+        assertThrowsExactly(IllegalArgumentException.class, () -> Condition.in(Core.SystemSize));
+    }
+
+    @Test
+    void bind() {
+        SelectQuery query = SelectQuery.builder()
+                .select(Core.SystemFileName, Core.SystemSize)
+                .where(Condition.ge(Core.SystemSize, Condition.param("minSize")))
+                .where(Condition.eq(Core.SystemFileExtension, Condition.param("ext")))
+                .orderBy(Core.SystemSize, true)
+                .orderBy(Core.SystemFileName, false)
+                .top(10)
+                .build();
+
+        assertEquals(Set.of("minSize", "ext"), query.getParameterNames());
+        assertEquals("""
+                        SELECT TOP 10 System.FileName, System.Size
+                        FROM SystemIndex
+                        WHERE ((System.Size >= 1024 AND System.FileExtension = '.it''s'))
+                        ORDER BY System.Size DESC, System.FileName""",
+                query.bind(Map.of("minSize", 1024, "ext", ".it's")));
+        assertThrowsExactly(IllegalArgumentException.class, () -> query.bind(Map.of("minSize", 1)));
+        assertThrowsExactly(IllegalStateException.class, query::getSql);
+
+        assertEquals("SELECT System.FileName\nFROM SystemIndex",
+                SelectQuery.builder().select(Core.SystemFileName).build().getSql());
+    }
+}
@@ -0,0 +1,44 @@
+package com.jisj.winsearch.properties;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyCatalogTest {
+
+    @Test
+    void find() {
+        assertEquals(Optional.of(Core.SystemFileName), PropertyCatalog.find("System.FileName"));
+        assertEquals(Optional.of(Core.SystemFileName), PropertyCatalog.find("SYSTEM.FILENAME"));
+        assertEquals(Optional.of(Image.SystemImageVerticalSize), PropertyCatalog.find("System.Image.VerticalSize"));
+        assertTrue(PropertyCatalog.find("System.Unknown").isEmpty());
+    }
+
+    @Test
+    void typeOf() {
+        assertEquals(PropertyType.UINT64, PropertyCatalog.typeOf("System.Size"));
+        assertEquals(PropertyType.FILETIME, PropertyCatalog.typeOf("System.Search.GatherTime"));
+        assertEquals(PropertyType.ANY, PropertyCatalog.typeOf("System.Unknown"));
+        assertTrue(Core.SystemKind.isMultiValued());
+        assertEquals(String[].class, Core.SystemKeywords.getJavaType());
+        assertEquals(java.util.Date.class, Core.SystemDateModified.getJavaType());
+    }
+
+    @Test
+    void isLowCardinality() {
+        assertTrue(PropertyCatalog.isLowCardinality("System.ItemTypeText"));
+        assertTrue(PropertyCatalog.isLowCardinality("system.fileextension"));
+        assertFalse(PropertyCatalog.isLowCardinality("System.ItemName"));
+        assertFalse(PropertyCatalog.isLowCardinality("System.Unknown"));
+    }
+
+    @Test
+    void register() {
+        WinProperty custom = () -> "System.Custom.Property";
+        PropertyCatalog.register(custom);
+        assertEquals(Optional.of(custom), PropertyCatalog.find("System.Custom.Property"));
+        assertEquals(PropertyType.ANY, custom.getType());
+    }
+}
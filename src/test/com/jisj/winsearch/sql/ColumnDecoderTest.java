@@ -0,0 +1,121 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.PropertyType;
+import com.jisj.winsearch.utils.OaIdlUtil;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ConcurrentModificationException;
+import java.util.Date;
+import java.util.List;
+
+import static com.sun.jna.platform.win32.Variant.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnDecoderTest {
+
+    @Test
+    void decode() {
+        assertEquals(230, ColumnDecoder.of(PropertyType.INT32).decode(new VARIANT(230)));
+        assertEquals(true, ColumnDecoder.of(PropertyType.BOOLEAN).decode(new VARIANT(true)));
+        assertEquals(1.5, ColumnDecoder.of(PropertyType.DOUBLE).decode(new VARIANT(1.5)));
+        // unexpected VARTYPE falls back to the generic decoding
+        assertEquals(230, ColumnDecoder.of(PropertyType.STRING).decode(new VARIANT(230)));
+        assertNull(ColumnDecoder.of(PropertyType.STRING).decode(new VARIANT()));
+    }
+
+    @Test
+    void decodeString() {
+        VARIANT value = new VARIANT();
+        value.getPointer().setShort(0, (short) VT_BSTR);
+        value.getPointer().setPointer(8, bstr("PNG File"));
+        value.read();
+        ColumnDecoder decoder = ColumnDecoder.of(PropertyType.STRING);
+        assertFalse(decoder instanceof ColumnDecoder.OfDictionary);
+        assertEquals("PNG File", decoder.decode(value));
+        assertNotSame(decoder.decode(value), decoder.decode(value));
+        ColumnDecoder dictionaryDecoder = ColumnDecoder.of(PropertyType.STRING, true);
+        assertInstanceOf(ColumnDecoder.OfDictionary.class, dictionaryDecoder);
+        assertEquals("PNG File", dictionaryDecoder.decode(value));
+        assertSame(dictionaryDecoder.decode(value), dictionaryDecoder.decode(value));
+        assertNull(dictionaryDecoder.decode(new VARIANT()));
+    }
+
+    @Test
+    void decodeLong() {
+        ColumnDecoder decoder = ColumnDecoder.of(PropertyType.UINT64);
+        assertInstanceOf(ColumnDecoder.OfLong.class, decoder);
+        assertEquals(5_000_000_000L, ((ColumnDecoder.OfLong) decoder).decodeLong(new VARIANT(5_000_000_000L)));
+        assertEquals(5_000_000_000L, decoder.decode(new VARIANT(5_000_000_000L)));
+        assertEquals(230L, ((ColumnDecoder.OfLong) decoder).decodeLong(new VARIANT(230)));
+        assertNull(decoder.decode(new VARIANT()));
+        assertTrue(ColumnDecoder.isEmpty(new VARIANT()));
+    }
+
+    @Test
+    void decodeDate() {
+        VARIANT value = new VARIANT();
+        value.getPointer().setShort(0, (short) VT_DATE);
+        value.getPointer().setDouble(8, 45722.779270833335);
+        value.read();
+        ColumnDecoder decoder = ColumnDecoder.of(PropertyType.FILETIME);
+        assertInstanceOf(ColumnDecoder.OfDate.class, decoder);
+        assertEquals(LocalDateTime.of(2025, 3, 6, 18, 42, 9),
+                OaIdlUtil.localMillisToLocalDateTime(((ColumnDecoder.OfDate) decoder).decodeLocalMillis(value)));
+        assertEquals(Date.from(LocalDateTime.of(2025, 3, 6, 18, 42, 9).atZone(ZoneId.systemDefault()).toInstant()),
+                decoder.decode(value));
+        assertNull(decoder.decode(new VARIANT()));
+    }
+
+    private static Pointer bstr(String str) {
+        byte[] utf16 = str.getBytes(StandardCharsets.UTF_16LE);
+        Memory memory = new Memory(4 + utf16.length + 2);
+        memory.clear();
+        memory.setInt(0, utf16.length);
+        memory.write(4, utf16, 0, utf16.length);
+        return memory.share(4);
+    }
+
+    /**
+     * VARIANT of VT_ARRAY | VT_BSTR, the memory is laid out as SAFEARRAY of one dimension
+     */
+    static VARIANT vector(String... values) {
+        int dataOffset = Native.POINTER_SIZE == 8 ? 16 : 12;
+        Memory data = new Memory((long) Native.POINTER_SIZE * Math.max(1, values.length));
+        for (int i = 0; i < values.length; i++) data.setPointer((long) i * Native.POINTER_SIZE, bstr(values[i]));
+        Memory array = new Memory(dataOffset + Native.POINTER_SIZE + 8);
+        array.clear();
+        array.setShort(0, (short) 1);
+        array.setInt(4, Native.POINTER_SIZE);
+        array.setPointer(dataOffset, data);
+        array.setInt(dataOffset + Native.POINTER_SIZE, values.length);
+        VARIANT value = new VARIANT();
+        value.getPointer().setShort(0, (short) (VT_ARRAY | VT_BSTR));
+        value.getPointer().setPointer(8, array);
+        value.read();
+        return value;
+    }
+
+    @Test
+    void decodeVector() {
+        ColumnDecoder decoder = ColumnDecoder.of(PropertyType.STRING_VECTOR);
+        assertInstanceOf(ColumnDecoder.OfVector.class, decoder);
+        ColumnDecoder.OfVector vectorDecoder = (ColumnDecoder.OfVector) decoder;
+        assertTrue(vectorDecoder.encode(vector("java", "search", "index")));
+        List<String> view = vectorDecoder.view();
+        assertEquals(List.of("java", "search", "index"), view);
+        assertArrayEquals(new String[]{"java", "search", "index"}, vectorDecoder.toArray());
+        assertTrue(vectorDecoder.encode(vector("index", "java")));
+        assertThrows(ConcurrentModificationException.class, view::size);
+        assertSame(vectorDecoder.toArray()[1], vectorDecoder.view().get(1));
+        assertArrayEquals(new String[0], (String[]) decoder.decode(vector()));
+        assertNull(decoder.decode(new VARIANT()));
+    }
+}
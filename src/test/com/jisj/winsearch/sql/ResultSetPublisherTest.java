@@ -0,0 +1,46 @@
+package com.jisj.winsearch.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetPublisherTest {
+
+    @Test
+    void idleTimeout() throws Exception {
+        Executor direct = Runnable::run;
+        CountDownLatch closed = new CountDownLatch(1);
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        new ResultSetPublisher<String>(objects -> fail("never requested"), rs -> rs.getString(0),
+                direct, direct, Duration.ofMillis(50), closed::countDown)
+                .subscribe(new Flow.Subscriber<>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                    }
+
+                    @Override
+                    public void onNext(String item) {
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        error.complete(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+        assertInstanceOf(WinSearchTimeoutException.class, error.get(5, TimeUnit.SECONDS));
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertThrowsExactly(IllegalArgumentException.class, () -> new ResultSetPublisher<String>(objects -> null,
+                rs -> rs.getString(0), direct, direct, Duration.ofMillis(-1)));
+    }
+}
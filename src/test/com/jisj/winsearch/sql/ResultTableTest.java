@@ -0,0 +1,128 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.PropertyType;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultTableTest {
+    private static final Date MODIFIED = Date.from(LocalDateTime.of(2025, 3, 6, 18, 42, 9).atZone(ZoneId.systemDefault()).toInstant());
+
+    private static ResultTable table() {
+        return table(Long.MAX_VALUE, ResultTable.Spill.FILE);
+    }
+
+    private static ResultTable table(long heapBudget, ResultTable.Spill spill) {
+        PropertyType[] types = {PropertyType.ANY, PropertyType.UINT64, PropertyType.FILETIME, PropertyType.STRING_VECTOR};
+        ColumnDecoder[] decoders = new ColumnDecoder[types.length];
+        for (int i = 0; i < types.length; i++) decoders[i] = ColumnDecoder.of(types[i]);
+        ResultTable.Builder builder = new ResultTable.Builder(
+                new String[]{"System.FileName", "System.Size", "System.DateModified", "System.Keywords"}, types, decoders, -1, heapBudget, spill);
+        builder.appendRow("a.txt", 5_000_000_000L, MODIFIED, new String[]{"java", "search"});
+        builder.appendRow("b.txt", null, null, null);
+        builder.appendRow(new VARIANT[]{new VARIANT(230), new VARIANT(42L), new VARIANT(), new VARIANT()}, 0);
+        return builder.build();
+    }
+
+    @Test
+    void getObject() {
+        getObject(table());
+        // the first row is in heap, the next rows are in the temporary file
+        try (ResultTable table = table(1, ResultTable.Spill.FILE)) {
+            assertTrue(table.isSpilled());
+            getObject(table);
+        }
+        try (ResultTable table = table(0, ResultTable.Spill.OFF_HEAP)) {
+            assertTrue(table.isSpilled());
+            getObject(table);
+        }
+    }
+
+    private static void getObject(ResultTable table) {
+        assertEquals(3, table.size());
+        assertEquals(4, table.getColumnCount());
+        assertEquals(1, table.findColumn("system.size"));
+        assertEquals(-1, table.findColumn("System.Author"));
+        assertEquals(PropertyType.FILETIME, table.getColumnType(2));
+        assertEquals("a.txt", table.getObject(0, 0));
+        assertEquals(5_000_000_000L, table.getLong(0, 1));
+        assertEquals(MODIFIED, table.getObject(0, 2));
+        assertEquals(LocalDateTime.of(2025, 3, 6, 18, 42, 9), table.getObject(0, 2, LocalDateTime.class));
+        assertArrayEquals(new String[]{"java", "search"}, (String[]) table.getObject(0, 3));
+        assertEquals(List.of("java", "search"), table.getValues(0, 3));
+        assertNull(table.getObject(1, 1));
+        assertEquals(0, table.getLong(1, 1));
+        assertNull(table.getObject(1, 2));
+        assertNull(table.getObject(1, 3));
+        assertEquals(List.of(), table.getValues(1, 3));
+        assertEquals(230, table.getObject(2, 0));
+        assertEquals(42L, table.getLong(2, 1));
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> table.getObject(3, 0));
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> table.getObject(0, 4));
+    }
+
+    @Test
+    void cursor() throws SQLException {
+        ResultTable table = table();
+        ResultTable.Cursor cursor = table.cursor();
+        assertTrue(cursor.isBeforeFirst());
+        assertEquals(0, cursor.getRow());
+        assertThrowsExactly(WinSearchSQLException.class, () -> cursor.getObject(0));
+        assertTrue(cursor.last());
+        assertEquals(3, cursor.getRow());
+        assertTrue(cursor.isLast());
+        assertEquals(230, cursor.getObject(0));
+        assertTrue(cursor.absolute(1));
+        assertEquals("a.txt", cursor.getString(0));
+        assertEquals(5_000_000_000L, cursor.getLong(cursor.findColumn("System.Size")));
+        assertTrue(cursor.relative(1));
+        assertEquals("b.txt", cursor.getObject("System.FileName"));
+        assertFalse(cursor.relative(5));
+        assertTrue(cursor.isAfterLast());
+        assertTrue(cursor.absolute(-3));
+        assertTrue(cursor.isFirst());
+        assertFalse(cursor.previous());
+        assertTrue(cursor.isBeforeFirst());
+        assertFalse(cursor.absolute(0));
+        assertSame(table, cursor.unwrap(ResultTable.class));
+        // each thread reads the shared table by its own cursor
+        assertEquals(List.of("a.txt", "b.txt", "230"),
+                table.cursor().stream().map(rs -> String.valueOf(rs.getOptional(0).orElseThrow())).toList());
+        cursor.close();
+        assertThrowsExactly(WinSearchSQLException.class, cursor::next);
+    }
+
+    @Test
+    void spill() {
+        spill(ResultTable.Spill.FILE);
+        spill(ResultTable.Spill.OFF_HEAP);
+    }
+
+    private static void spill(ResultTable.Spill spill) {
+        PropertyType[] types = {PropertyType.ANY, PropertyType.UINT64, PropertyType.STRING_VECTOR};
+        ColumnDecoder[] decoders = new ColumnDecoder[types.length];
+        for (int i = 0; i < types.length; i++) decoders[i] = ColumnDecoder.of(types[i]);
+        ResultTable.Builder builder = new ResultTable.Builder(
+                new String[]{"System.FileName", "System.Size", "System.Keywords"}, types, decoders, -1, 1 << 16, spill);
+        int rows = 3 * RowStore.BLOCK_ROWS;
+        for (int i = 0; i < rows; i++)
+            builder.appendRow("файл-" + i, (long) i, new String[]{"k" + i % 7, "java"});
+        ResultTable table = builder.build();
+        assertTrue(table.isSpilled());
+        assertEquals(rows, table.size());
+        for (int i : new int[]{0, 100, RowStore.BLOCK_ROWS, rows - 1, 5000, 1}) {
+            assertEquals("файл-" + i, table.getObject(i, 0));
+            assertEquals(i, table.getLong(i, 1));
+            assertEquals(List.of("k" + i % 7, "java"), table.getValues(i, 2));
+        }
+        table.close();
+        assertThrowsExactly(IllegalStateException.class, () -> table.getObject(rows - 1, 0));
+    }
+}
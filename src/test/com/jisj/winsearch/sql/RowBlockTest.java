@@ -0,0 +1,79 @@
+package com.jisj.winsearch.sql;
+
+import com.jisj.winsearch.properties.PropertyType;
+import com.sun.jna.Memory;
+import com.sun.jna.platform.win32.Variant.VARIANT;
+import org.junit.jupiter.api.Test;
+
+import static com.sun.jna.platform.win32.Variant.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBlockTest {
+
+    @Test
+    void load() {
+        int size = new VARIANT().size();
+        Memory data = new Memory(3L * size);
+        data.clear();
+        for (int i = 0; i < 2; i++) {
+            data.setShort((long) i * size, (short) VT_I4);
+            data.setInt((long) i * size + 8, 230 + i);
+        }
+        RowBlock block = RowBlock.acquire(4);
+        VARIANT[] cells = block.load(data, 3);
+        ColumnDecoder decoder = ColumnDecoder.of(PropertyType.INT32);
+        assertEquals(VT_I4, ColumnDecoder.varType(cells[0]));
+        assertEquals(230, decoder.decode(cells[0]));
+        assertEquals(231, decoder.decode(cells[1]));
+        assertTrue(ColumnDecoder.isEmpty(cells[2]));
+        // the views read the data in place
+        data.setInt(8, 42);
+        assertEquals(42, decoder.decode(cells[0]));
+        // the views are reused for the next block
+        Memory next = new Memory(size);
+        next.clear();
+        next.setShort(0, (short) VT_I4);
+        next.setInt(8, 7);
+        assertSame(cells, block.load(next, 1));
+        assertEquals(7, decoder.decode(cells[0]));
+        assertEquals(231, decoder.decode(cells[1]));
+        block.release();
+    }
+
+    @Test
+    void appendVector() {
+        ColumnDecoder.OfVector decoder = (ColumnDecoder.OfVector) ColumnDecoder.of(PropertyType.STRING_VECTOR);
+        RowBlock block = RowBlock.acquire(2);
+        assertTrue(decoder.encode(ColumnDecoderTest.vector("java", "search")));
+        assertEquals(0, block.appendVector(decoder));
+        assertTrue(decoder.encode(ColumnDecoderTest.vector("index", "java", "com")));
+        assertEquals(2, block.appendVector(decoder));
+        // the codes of the previous cells are kept after the next cell is encoded
+        assertEquals("java", decoder.get(block.vectorCodes[0]));
+        assertEquals("search", decoder.get(block.vectorCodes[1]));
+        assertEquals("index", decoder.get(block.vectorCodes[2]));
+        assertEquals(block.vectorCodes[0], block.vectorCodes[3]);
+        // the codes are replaced by the next block
+        block.load(new Memory(new VARIANT().size()), 1);
+        assertEquals(0, block.appendVector(decoder));
+        block.release();
+    }
+
+    @Test
+    void acquire() {
+        // empty the pool shared by the tests
+        for (int i = 0; i < RowBlock.POOL_SIZE; i++) RowBlock.acquire(1);
+        RowBlock block = RowBlock.acquire(64);
+        block.cells[0] = "value";
+        block.release();
+        RowBlock recycled = RowBlock.acquire(16);
+        assertSame(block, recycled);
+        assertNull(recycled.cells[0]);
+        recycled.release();
+        RowBlock larger = RowBlock.acquire(128);
+        assertNotSame(block, larger);
+        assertTrue(larger.capacity() >= 128);
+        larger.release();
+    }
+}
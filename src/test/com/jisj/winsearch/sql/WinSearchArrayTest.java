@@ -0,0 +1,23 @@
+package com.jisj.winsearch.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WinSearchArrayTest {
+
+    @Test
+    void getArray() throws SQLException {
+        String[] values = {"java", "search", "index"};
+        WinSearchArray array = new WinSearchArray(values);
+        assertEquals(Types.VARCHAR, array.getBaseType());
+        assertArrayEquals(values, (String[]) array.getArray());
+        assertNotSame(values, array.getArray());
+        assertArrayEquals(new String[]{"search", "index"}, (String[]) array.getArray(2, 2));
+        assertThrowsExactly(WinSearchSQLException.class, () -> array.getArray(3, 2));
+        assertThrowsExactly(WinSearchSQLException.class, () -> array.getArray(0, 1));
+    }
+}
@@ -10,7 +10,14 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static com.jisj.winsearch.ado.ObjectStateEnum.adStateClosed;
@@ -167,6 +174,18 @@ class WinSearchResultSetTest {
         }
     }
 
+    @Test
+    void getTimestamp() throws SQLException {
+        ResultSet rs = getOneRecordResultSet();
+        while (rs.next()) {
+            assertEquals(System_ItemDate.getTime(), rs.getTimestamp(3).getTime());
+            assertEquals(System_ItemDate.toInstant(), rs.getObject(3, Instant.class));
+            assertEquals(LocalDateTime.ofInstant(System_ItemDate.toInstant(), ZoneId.systemDefault()), rs.getObject(3, LocalDateTime.class));
+            assertEquals(System_ItemDate.toInstant(), rs.getObject(3, OffsetDateTime.class).toInstant());
+            assertEquals(System_ItemDate, rs.getObject(3));
+        }
+    }
+
     @Test
     void getInt() throws SQLException {
         ResultSet rs = getOneRecordResultSet();
@@ -228,6 +247,42 @@ class WinSearchResultSetTest {
         assertThrowsExactly(WinSearchSQLException.class, rs::isBeforeFirst);
     }
 
+    @Test
+    void first() throws SQLException {
+        WinSearchResultSet rs = getOneRecordResultSet();
+        assertTrue(rs.first());
+        assertEquals(1, rs.getRow());
+        assertEquals(System_FileName, rs.getObject(0));
+        assertFalse(rs.next());
+        assertTrue(rs.isAfterLast());
+        rs.close();
+    }
+
+    @Test
+    void previous() throws SQLException {
+        WinSearchResultSet rs = getAnyRecordsResultSet();
+        rs.setFetchSize(2);
+        List<Object> names = new ArrayList<>();
+        while (rs.next()) {
+            assertFalse(rs.isBeforeFirst());
+            assertFalse(rs.isAfterLast());
+            assertEquals(names.size() + 1, rs.getRow());
+            names.add(rs.getObject(0));
+        }
+        assertTrue(names.size() > 2);
+        assertTrue(rs.isAfterLast());
+        //backward through the blocks
+        for (int i = names.size() - 1; i >= 0; i--) {
+            assertTrue(rs.previous());
+            assertEquals(i + 1, rs.getRow());
+            assertEquals(names.get(i), rs.getObject(0));
+        }
+        assertFalse(rs.previous());
+        assertTrue(rs.isBeforeFirst());
+        assertThrowsExactly(WinSearchSQLException.class, () -> rs.getObject(0));
+        rs.close();
+    }
+
     @Test
     void isEmpty() throws SQLException {
         WinSearchResultSet rs = getOneRecordResultSet();
@@ -254,4 +309,44 @@ class WinSearchResultSetTest {
         //Empty Stream after close
         assertEquals(0, rs.stream().count());
     }
+
+    @Test
+    void publisher() throws Exception {
+        //ResultSet is created and read on one COM thread
+        ExecutorService comExecutor = Executors.newSingleThreadExecutor();
+        WinSearchResultSet rs = comExecutor.submit(WinSearchResultSetTest::getOneRecordResultSet).get();
+        Statement statement = rs.getStatement();
+        List<String> names = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        rs.publisher(r -> r.getString(0), comExecutor, statement).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(String item) {
+                names.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(System_FileName), names);
+        assertTrue(comExecutor.submit(rs::isClosed).get());
+        assertTrue(statement.isClosed());
+        comExecutor.shutdown();
+    }
 }
\ No newline at end of file
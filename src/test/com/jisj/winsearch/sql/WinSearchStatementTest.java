@@ -4,8 +4,11 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,4 +40,54 @@ class WinSearchStatementTest {
         st.close();
         assertThrowsExactly(WinSearchSQLException.class, st::getResultSet);
     }
-}
\ No newline at end of file
+
+    @Test
+    void setMaxRows() throws SQLException {
+        Statement st = con.createStatement();
+        st.setMaxRows(2);
+        WinSearchResultSet rs = (WinSearchResultSet) st.executeQuery(SQL);
+        assertTrue(rs.size() <= 2);
+        assertThrowsExactly(WinSearchSQLException.class, () -> st.setMaxRows(-1));
+        st.close();
+    }
+
+    @Test
+    void setQueryTimeout() throws SQLException {
+        Statement st = con.createStatement();
+        assertThrowsExactly(WinSearchSQLException.class, () -> st.setQueryTimeout(-1));
+        st.setQueryTimeout(1);
+        assertEquals(1, st.getQueryTimeout());
+        int commandTimeout = ((WinSearchConnection) con).getAdoConnection().getCommandTimeout();
+        ResultSet rs = st.executeQuery(SQL);
+        //the shared ADO connection keeps own timeout
+        assertEquals(commandTimeout, ((WinSearchConnection) con).getAdoConnection().getCommandTimeout());
+        assertTrue(rs.next());
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertThrowsExactly(WinSearchTimeoutException.class, rs::next);
+        assertTrue(rs.isClosed());
+        st.close();
+    }
+
+    @Test
+    void cancel() throws SQLException {
+        WinSearchStatement st = (WinSearchStatement) con.createStatement();
+        //pending cancel before the first execution
+        st.cancel();
+        assertThrowsExactly(WinSearchSQLException.class, () -> st.executeQuery(SQL));
+        assertTrue(st.isCancelled());
+        //cancel of the running query
+        ResultSet rs = st.executeQuery(SQL);
+        assertFalse(st.isCancelled());
+        st.cancel();
+        assertFalse(rs.next());
+        assertTrue(rs.isClosed());
+        assertTrue(st.isCancelled());
+        //cancel after the result is closed is ignored
+        rs = st.executeQuery(SQL);
+        rs.close();
+        st.cancel();
+        assertFalse(st.isCancelled());
+        assertNotNull(st.executeQuery(SQL));
+        st.close();
+    }
+}
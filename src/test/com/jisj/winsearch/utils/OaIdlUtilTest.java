@@ -1,10 +1,14 @@
 package com.jisj.winsearch.utils;
 
 import com.jisj.winsearch.ado.*;
+import com.sun.jna.Memory;
 import com.sun.jna.platform.win32.OaIdl;
 import org.junit.jupiter.api.Test;
 import com.jisj.winsearch.sql.WinSearchDataSource;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,4 +41,39 @@ class OaIdlUtilTest {
         System.out.println(Arrays.toString(pa[0]));
     }
 
-}
\ No newline at end of file
+    @Test
+    void filetimeToMillis() {
+        assertEquals(0, OaIdlUtil.filetimeToMillis(116444736000000000L));
+        assertEquals(1741275729000L, OaIdlUtil.filetimeToMillis(116444736000000000L + 1741275729000L * 10000));
+        assertEquals(-1, OaIdlUtil.filetimeToMillis(116444736000000000L - 1));
+    }
+
+    private static Memory bstr(String str) {
+        byte[] utf16 = str.getBytes(StandardCharsets.UTF_16LE);
+        Memory memory = new Memory(4 + utf16.length + 2);
+        memory.clear();
+        memory.setInt(0, utf16.length);
+        memory.write(4, utf16, 0, utf16.length);
+        return memory;
+    }
+
+    @Test
+    void bstrToString() {
+        assertEquals("D:\\Tools\\standby.png", OaIdlUtil.bstrToString(bstr("D:\\Tools\\standby.png").share(4)));
+        assertEquals("Документ.txt", OaIdlUtil.bstrToString(bstr("Документ.txt").share(4)));
+        assertEquals("café", OaIdlUtil.bstrToString(bstr("café").share(4)));
+        assertEquals("", OaIdlUtil.bstrToString(bstr("").share(4)));
+        assertEquals("", OaIdlUtil.bstrToString(null));
+    }
+
+    @Test
+    void oleDateToLocalMillis() {
+        assertEquals(0, OaIdlUtil.oleDateToLocalMillis(25569.0));
+        assertEquals(LocalDateTime.of(2025, 3, 6, 18, 42, 9),
+                OaIdlUtil.localMillisToLocalDateTime(OaIdlUtil.oleDateToLocalMillis(45722.779270833335)));
+        assertEquals(LocalDateTime.of(1899, 12, 29, 6, 0),
+                OaIdlUtil.localMillisToLocalDateTime(OaIdlUtil.oleDateToLocalMillis(-1.25)));
+        assertEquals(java.util.Date.from(LocalDateTime.of(2025, 3, 6, 18, 42, 9).atZone(ZoneId.systemDefault()).toInstant()),
+                OaIdlUtil.oleDateToDate(45722.779270833335));
+    }
+}
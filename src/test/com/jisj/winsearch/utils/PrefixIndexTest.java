@@ -0,0 +1,48 @@
+package com.jisj.winsearch.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void find() {
+        List<PrefixIndex.Entry> entries = new ArrayList<>();
+        List<String> names = IntStream.range(0, 100).mapToObj(i -> "report-%03d.txt".formatted(i)).toList();
+        for (int i = 0; i < names.size(); i++) entries.add(new PrefixIndex.Entry(names.get(i), i));
+        entries.add(new PrefixIndex.Entry("Readme.MD", 100));
+        entries.add(new PrefixIndex.Entry("a.txt", 101));
+        PrefixIndex index = PrefixIndex.of(entries);
+
+        assertEquals(102, index.size());
+        assertArrayEquals(new int[]{100}, index.find("READ", 10));
+        assertArrayEquals(new int[]{0, 1, 2}, index.find("rep", 3));
+        assertArrayEquals(IntStream.range(50, 60).toArray(), index.find("report-05", 20));
+        assertArrayEquals(new int[]{101, 100, 0}, index.find("", 3));
+        assertEquals(0, index.find("z", 5).length);
+        assertEquals(0, PrefixIndex.empty().find("a", 5).length);
+        assertThrowsExactly(IllegalArgumentException.class, () -> index.find("a", 0));
+    }
+
+    @Test
+    void merge() {
+        PrefixIndex index = PrefixIndex.of(List.of(
+                new PrefixIndex.Entry("beta", 0),
+                new PrefixIndex.Entry("delta", 1)));
+        PrefixIndex merged = index.merge(List.of(
+                new PrefixIndex.Entry("Alpha", 2),
+                new PrefixIndex.Entry("gamma", 3),
+                new PrefixIndex.Entry("Charlie", 4)));
+
+        assertSame(index, index.merge(List.of()));
+        assertEquals(2, index.size());
+        List<String> keys = new ArrayList<>();
+        merged.forEach((key, id) -> keys.add(key + ":" + id));
+        assertEquals(List.of("alpha:2", "beta:0", "charlie:4", "delta:1", "gamma:3"), keys);
+    }
+}
@@ -0,0 +1,71 @@
+package com.jisj.winsearch.utils;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    private static Pointer bstr(String str) {
+        byte[] utf16 = str.getBytes(StandardCharsets.UTF_16LE);
+        Memory memory = new Memory(4 + utf16.length + 2);
+        memory.clear();
+        memory.setInt(0, utf16.length);
+        memory.write(4, utf16, 0, utf16.length);
+        return memory.share(4);
+    }
+
+    @Test
+    void encode() {
+        StringDictionary dictionary = new StringDictionary(4);
+        int png = dictionary.encode(bstr("PNG File"));
+        int txt = dictionary.encode(bstr("Текстовый документ"));
+        assertNotEquals(png, txt);
+        assertEquals(png, dictionary.encode(bstr("PNG File")));
+        assertEquals(txt, dictionary.encode(bstr("Текстовый документ")));
+        assertEquals("PNG File", dictionary.get(png));
+        assertSame(dictionary.get(png), dictionary.get(dictionary.encode(bstr("PNG File"))));
+        assertEquals("", dictionary.get(dictionary.encode(null)));
+        assertEquals(3, dictionary.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.get(3));
+    }
+
+    @Test
+    void overflow() {
+        StringDictionary dictionary = new StringDictionary(2);
+        dictionary.encode(bstr("a"));
+        dictionary.encode(bstr("b"));
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(bstr("c")));
+        assertEquals("c", dictionary.overflow());
+        assertTrue(dictionary.isDisabled());
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(bstr("a")));
+        assertNull(dictionary.overflow());
+    }
+
+    @Test
+    void overflow_lowCardinality() {
+        StringDictionary dictionary = new StringDictionary(2);
+        for (int i = 0; i < 10; i++) {
+            dictionary.encode(bstr("a"));
+            dictionary.encode(bstr("b"));
+        }
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(bstr("c")));
+        assertFalse(dictionary.isDisabled());
+        assertEquals(0, dictionary.encode(bstr("a")));
+    }
+
+    @Test
+    void grow() {
+        StringDictionary dictionary = new StringDictionary(100);
+        for (int i = 0; i < 100; i++) assertEquals(i, dictionary.encode(bstr("value" + i)));
+        for (int i = 0; i < 100; i++) assertEquals(i, dictionary.encode(bstr("value" + i)));
+        assertEquals("value99", dictionary.get(99));
+        assertEquals(100, dictionary.size());
+        assertEquals(StringDictionary.NO_CODE, dictionary.encode(bstr("value100")));
+        assertEquals("value100", dictionary.overflow());
+    }
+}
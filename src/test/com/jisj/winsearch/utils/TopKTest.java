@@ -0,0 +1,34 @@
+package com.jisj.winsearch.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void offer() {
+        TopK<Integer> top = new TopK<>(3, Comparator.naturalOrder());
+        assertTrue(top.offer(5));
+        assertTrue(top.offer(1));
+        assertTrue(top.offer(7));
+        assertFalse(top.offer(0));
+        assertTrue(top.offer(6));
+        assertEquals(3, top.size());
+        assertEquals(List.of(7, 6, 5), top.toList());
+    }
+
+    @Test
+    void offerAll() {
+        List<Integer> shard1 = List.of(10, 8, 3);
+        List<Integer> shard2 = List.of(9, 2, 1);
+        assertEquals(List.of(1, 2), new TopK<Integer>(2, Comparator.reverseOrder())
+                .offerAll(shard1)
+                .offerAll(shard2)
+                .toList());
+        assertThrowsExactly(IllegalArgumentException.class, () -> new TopK<Integer>(0, Comparator.naturalOrder()));
+    }
+}